@@ -1,18 +1,41 @@
 package Challenge;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * @author Zack Mayeda
  * 3/15/12
  * Fun-Learning Factor, Factor class
- * This class does the bulk of the work for this challenge. It implements the Hungarian Algorithm,
- * and contains all data structures for this program.
+ * This class does the bulk of the work for this challenge. It builds the FLF matrix, hands it to the
+ * Hungarian class to find the best assignment, and contains all data structures for this program.
  */
 
 public class Factor {
 
+    /** The number of rows of the FLF matrix below which a task fills them itself instead of splitting them. */
+    private static final int ROWS_PER_TASK = 16;
+
+    /** The amount by which a reduced cost in assignSparse must be negative before it counts, so that rounding
+     *  errors in the potentials are not taken for a better assignment. */
+    private static final double EPSILON = 1e-9;
+
+    /** The most edges assignSparse may add while pricing, as a multiple of the edges it starts with, before it
+     *  gives up and calls assignGrouped instead. */
+    private static final int PRICING_EDGE_FACTOR = 4;
+
+    /** The most rounds of pricing assignSparse may run before it gives up and calls assignGrouped instead. */
+    private static final int MAX_PRICING_ROUNDS = 8;
+
+    /** The most searching assignSparse may do while pricing, as a multiple of the searching it took to match
+     *  everyone at first, before it gives up and calls assignGrouped instead. */
+    private static final int PRICING_WORK_FACTOR = 16;
+
     /** ArrayList containing all tutors as Person objects. */
     private ArrayList<Person> tutors = new ArrayList<Person>();
 
@@ -25,41 +48,54 @@ public class Factor {
     /** The largest single FLF that exists for any one player and one tutor. */
     private double maxSingleFLF = 0;
 
-    /** The number of pairings needed to be made given all players and tutors. */
+    /** The number of pairings needed to be made given all players and tutors, which is the smaller of the
+     * number of tutors and the number of players. */
     private int numberOfPairs;
 
-    /** ArrayList containing the minimum FLF for each row of the flfMatrix.
-     * The minimum FLF for a row is stored at that row's index in rowMin.
-     * For example: if 7.0 is the smallest FLF in row 2, 7.0 is store at index 2 in rowMin. */
-    private ArrayList<Double> rowMin = new ArrayList<Double>();
-
-    /** ArrayList containing the minimum FLF for each column of the flfMatrix.
-     * the minimum FLF for a column is stored at that column's index in colMin. */
-    private ArrayList<Double> colMin = new ArrayList<Double>();
-
-    /** ArrayList containing booleans corresponding to whether or not a row (tutor) has
-     * been given an assignment. The row number is the position of the boolean in rowCover. */
-    private ArrayList<Boolean> rowCover = new ArrayList<Boolean>();
-
-    /** ArrayList containing booleans corresponding to whether or not a column (player) has
-     * been given an assignment. The column number is the position of the boolean in colCover. */
-    private ArrayList<Boolean> colCover = new ArrayList<Boolean>();
-
-    /** The matrix formed with ArrayLists, which contains doubles. Tutors correspond to rows,
-     * and players to columns. This matrix is often altered as the program runs. This is the
-     * matrix that I use to run the Hungarian Algorithm. */
-    private ArrayList<ArrayList<Double>> flfMatrix = new ArrayList<ArrayList<Double>>();
+    /** True iff the tutors correspond to the rows of the FLF matrices and the players to the columns. The
+     * Hungarian class needs at least as many columns as rows, so when there are more tutors than players this is
+     * false, and the players are the rows. */
+    private boolean tutorsAreRows = true;
 
-    /** The matrix formed with ArrayLists, which contains every possible FLF, as doubles.
-     * Tutors correspond to rows, and players to columns. After being filled with every FLF,
-     * this matrix is never changed. */
-    private ArrayList<ArrayList<Double>> originalMatrix = new ArrayList<ArrayList<Double>>();
+    /** The matrix of doubles that I use to run the Hungarian Algorithm. Tutors correspond to rows,
+     * and players to columns, unless tutorsAreRows is false. This matrix is altered as the program runs. */
+    private Matrix flfMatrix;
 
     /** HashMap containing all final assignments. A tutor's position in the tutor ArrayList
      * corresponds to the key of the assignment in this HashMap. The player assigned to a given
      * tutor is the value. */
     private HashMap<Integer, Integer> pairs = new HashMap<Integer, Integer>();
 
+    /** The solver of the current assignment, kept so that the assignment can be updated when people join or
+     * leave. It is square: a row or column may stand for nobody, costing nobodyCost with everyone. It is null
+     * until the first change. It may share its costs with the flfMatrix, which then changes with it. */
+    private Hungarian solver;
+
+    /** The cost in the solver of a cell whose row or column stands for nobody. It is larger than the cost of
+     * any pair of people, so the solver pairs as many people as it can. */
+    private double nobodyCost;
+
+    /** The tutor whose costs are in each row of the solver, or -1 for a row that stands for nobody. */
+    private ArrayList<Integer> rowTutor = new ArrayList<Integer>();
+
+    /** The player whose costs are in each column of the solver, or -1 for a column that stands for nobody. */
+    private ArrayList<Integer> colPlayer = new ArrayList<Integer>();
+
+    /** The row of the solver of each tutor, or -1 for a tutor who has left. */
+    private ArrayList<Integer> tutorRow = new ArrayList<Integer>();
+
+    /** The column of the solver of each player, or -1 for a player who has left. */
+    private ArrayList<Integer> playerCol = new ArrayList<Integer>();
+
+    /** Method that makes room for a number of tutors and players, so that adding them does not grow the
+     *  ArrayLists over and over.
+     *  @param numTutors The number of tutors that will be added.
+     *  @param numPlayers The number of players that will be added. */
+    void reserve(int numTutors, int numPlayers) {
+        tutors.ensureCapacity(numTutors);
+        players.ensureCapacity(numPlayers);
+    }
+
     /** Method that is given a string and an int that tells what type of person is being created.
      *  @param name One long string that is the name of the person.
      *  @param job 0 if the people being created are tutors, 1 if the people being created are players.
@@ -68,45 +104,121 @@ public class Factor {
         Person newPerson = new Person(name);
         if (job == 0) {
             tutors.add(newPerson);
-            numberOfPairs += 1;
         } else {
             players.add(newPerson);
         }
+        numberOfPairs = Math.min(tutors.size(), players.size());
     }
 
     /** Method that gets the FLF for each tutor and player assignment, and puts that value into the flfMatrix.
-     *  After filling the flfMatrix, this copies all values into the originalMatrix.
+     *  The name lengths and the player vowel and consonant counts, which each Person counted once, are gathered
+     *  into arrays, and whether two lengths share a factor is looked up in a table, so each cell costs a few
+     *  arithmetic operations. The rows are filled in parallel by a fork-join pool.
      */
     void computeEachFLF() {
-        for (int i = 0; i < numberOfPairs; i++) {
-            ArrayList<Double> row = new ArrayList<Double>();
-            for (int j = 0; j < numberOfPairs; j++) {
-                double FLF = MathHelpers.computeFLF(tutors.get(i), players.get(j));
-                row.add(j, FLF);
-                if (FLF > maxSingleFLF) {
-                    maxSingleFLF = FLF;
-                }
+        int numTutors = tutors.size();
+        int numPlayers = players.size();
+        tutorsAreRows = numTutors <= numPlayers;
+        if (tutorsAreRows) {
+            flfMatrix = new Matrix(numTutors, numPlayers);
+        } else {
+            flfMatrix = new Matrix(numPlayers, numTutors);
+        }
+        int[] tutorLengths = new int[numTutors];
+        int[] playerLengths = new int[numPlayers];
+        double[] playerVowels = new double[numPlayers];
+        double[] playerConsonants = new double[numPlayers];
+        int longest = 0;
+        for (int i = 0; i < numTutors; i++) {
+            tutorLengths[i] = tutors.get(i).getLength();
+            longest = Math.max(longest, tutorLengths[i]);
+        }
+        for (int j = 0; j < numPlayers; j++) {
+            Person player = players.get(j);
+            playerLengths[j] = player.getLength();
+            playerVowels[j] = player.getVowels();
+            playerConsonants[j] = player.getConsonants();
+            longest = Math.max(longest, playerLengths[j]);
+        }
+        boolean[][] sharesFactor = new boolean[longest + 1][longest + 1];
+        for (int a = 0; a <= longest; a++) {
+            for (int b = 0; b <= longest; b++) {
+                sharesFactor[a][b] = MathHelpers.gcf(b, a) != 1;
             }
-            flfMatrix.add(i, row);
-            rowMin.add(Double.POSITIVE_INFINITY);
-            colMin.add(Double.POSITIVE_INFINITY);
-        }
-        duplicateMat(flfMatrix, originalMatrix);
-    }
-
-    /** Method that copies all elements of a matrix, represented by an ArrayList of ArrayLists, into a different
-     * matrix.
-     * @param start The matrix to copy elements from.
-     * @param dest The location where elements will be copied to. */
-    void duplicateMat(ArrayList<ArrayList<Double>> start, ArrayList<ArrayList<Double>> dest) {
-        for (int i = 0; i < numberOfPairs; i++) {
-            ArrayList<Double> row = new ArrayList<Double>();
-            for (int j = 0; j < numberOfPairs; j++) {
-                double val = start.get(i).get(j);
-                row.add(j, val);
-                dest.add(i, row);
+        }
+        maxSingleFLF = Math.max(maxSingleFLF, ForkJoinPool.commonPool().invoke(new FillRows(0,
+                flfMatrix.getRows(), tutorLengths, playerLengths, playerVowels, playerConsonants, sharesFactor)));
+    }
+
+    /** A task that fills a range of rows of the flfMatrix, splitting the range in half for other threads until
+     *  it is at most ROWS_PER_TASK rows long, and returns the largest FLF in its rows. Tasks are never serialized. */
+    @SuppressWarnings("serial")
+    private class FillRows extends RecursiveTask<Double> {
+
+        /** The first row to fill. */
+        private int start;
+        /** One past the last row to fill. */
+        private int end;
+        /** The length of each tutor's name. */
+        private int[] tutorLengths;
+        /** The length of each player's name. */
+        private int[] playerLengths;
+        /** The number of vowels in each player's name. */
+        private double[] playerVowels;
+        /** The number of consonants in each player's name. */
+        private double[] playerConsonants;
+        /** True at [a][b] iff lengths a and b have a common factor other than 1. */
+        private boolean[][] sharesFactor;
+
+        /** Constructor method for a task that fills rows start up to end from the given name statistics.
+         * @param start The first row to fill.
+         * @param end One past the last row to fill.
+         * @param tutorLengths The length of each tutor's name.
+         * @param playerLengths The length of each player's name.
+         * @param playerVowels The number of vowels in each player's name.
+         * @param playerConsonants The number of consonants in each player's name.
+         * @param sharesFactor True at [a][b] iff lengths a and b have a common factor other than 1. */
+        FillRows(int start, int end, int[] tutorLengths, int[] playerLengths, double[] playerVowels,
+                 double[] playerConsonants, boolean[][] sharesFactor) {
+            this.start = start;
+            this.end = end;
+            this.tutorLengths = tutorLengths;
+            this.playerLengths = playerLengths;
+            this.playerVowels = playerVowels;
+            this.playerConsonants = playerConsonants;
+            this.sharesFactor = sharesFactor;
+        }
+
+        @Override
+        protected Double compute() {
+            if (end - start > ROWS_PER_TASK) {
+                int middle = (start + end) >>> 1;
+                FillRows top = new FillRows(start, middle, tutorLengths, playerLengths, playerVowels,
+                        playerConsonants, sharesFactor);
+                FillRows bottom = new FillRows(middle, end, tutorLengths, playerLengths, playerVowels,
+                        playerConsonants, sharesFactor);
+                top.fork();
+                double bottomMax = bottom.compute();
+                return Math.max(top.join(), bottomMax);
+            }
+            double[] cells = flfMatrix.getData();
+            int cols = flfMatrix.getCols();
+            double max = 0;
+            for (int i = start; i < end; i++) {
+                int offset = i * cols;
+                for (int j = 0; j < cols; j++) {
+                    int tutor = tutorsAreRows ? i : j;
+                    int player = tutorsAreRows ? j : i;
+                    int tutorLength = tutorLengths[tutor];
+                    double FLF = MathHelpers.computeFLF(tutorLength, playerVowels[player], playerConsonants[player],
+                            sharesFactor[tutorLength][playerLengths[player]]);
+                    cells[offset + j] = FLF;
+                    if (FLF > max) {
+                        max = FLF;
+                    }
+                }
             }
-            dest.add(i, row);
+            return max;
         }
     }
 
@@ -117,292 +229,582 @@ public class Factor {
      *  previous flfMatrix is now the largest number in the new flfMatrix. This effectively turns the FLF
      *  maximization problem into a minimization problem. Thus I can solve this challenge using the Hungarian Algorithm. */
     void convertToMin() {
-        for (int i = 0; i < numberOfPairs; i++) {
-            ArrayList<Double> row = flfMatrix.get(i);
-            double newFLF;
-            for (int j = 0; j < numberOfPairs; j++) {
-                newFLF = maxSingleFLF - row.get(j);
-                row.set(j, newFLF);
+        double[] cells = flfMatrix.getData();
+        for (int k = 0; k < cells.length; k++) {
+            cells[k] = maxSingleFLF - cells[k];
+        }
+    }
+
+    /** Method that makes the final assignments, and puts them into the pairs HashMap. It hands the flfMatrix,
+     *  which convertToMin has turned into a minimization problem, to the Hungarian class, which finds the
+     *  assignment of smallest total cost. That assignment is the one with the largest total FLF, since each
+     *  cost is maxSingleFLF minus an FLF. When the tutors and players are not equal in number, every person on
+     *  the smaller side is paired and the rest of the larger side is left out; no padding rows are added, since
+     *  the Hungarian class allows more columns than rows. */
+    void assign() {
+        int rows = flfMatrix.getRows();
+        solver = new Hungarian(flfMatrix.getData(), rows, flfMatrix.getCols());
+        int[] match = solver.solve();
+        rowTutor.clear();
+        colPlayer.clear();
+        tutorRow.clear();
+        playerCol.clear();
+        for (int i = 0; i < rows; i++) {
+            if (tutorsAreRows) {
+                pairs.put(i, match[i]);
+            } else {
+                pairs.put(match[i], i);
             }
-            flfMatrix.set(i, row);
         }
     }
 
-    /** Method that determines the minimum FLF for each row and column, and places that minimum FLF
-     *  in the corresponding location in rMin and cMin, respectively. */
-    void setMins() {
-        for (int i = 0; i < numberOfPairs; i++) {
-            double rMin = Double.POSITIVE_INFINITY, cMin = Double.POSITIVE_INFINITY;
-            ArrayList<Double> row = flfMatrix.get(i);
-            for (int j = 0; j < numberOfPairs; j++) {
-                double currentRFLF = row.get(j);
-                double currentCFLF = flfMatrix.get(j).get(i);
-                if (currentRFLF < rMin) {
-                    rMin = currentRFLF;
-                }
-                if (currentCFLF < cMin) {
-                    cMin = currentCFLF;
+    /** Method that lists the assignments with the largest total FLFs, best first, once assign has found the best
+     *  one. The KBest class lists them by Murty's method, starting from the matching and potentials of the
+     *  solver used by assign, so each assignment after the first costs a few augmenting paths instead of a new
+     *  solve. It cannot be used once people have joined or left with addTutor, removePlayer and the like.
+     *  @param k The number of assignments wanted.
+     *  @return Up to k assignments, each a HashMap from tutor index to player index like the pairs HashMap. */
+    ArrayList<HashMap<Integer, Integer>> assignBest(int k) {
+        if (solver == null || !rowTutor.isEmpty()) {
+            throw new IllegalStateException("assignBest must follow assign");
+        }
+        ArrayList<HashMap<Integer, Integer>> result = new ArrayList<HashMap<Integer, Integer>>();
+        KBest lister = new KBest(solver);
+        while (result.size() < k) {
+            int[] match = lister.next();
+            if (match == null) {
+                break;
+            }
+            HashMap<Integer, Integer> assignment = new HashMap<Integer, Integer>();
+            for (int i = 0; i < match.length; i++) {
+                if (tutorsAreRows) {
+                    assignment.put(i, match[i]);
+                } else {
+                    assignment.put(match[i], i);
                 }
             }
-            rowMin.set(i, rMin);
-            colMin.set(i, cMin);
+            result.add(assignment);
         }
+        return result;
     }
 
-    /** Method that subtracts the minimum FLF of a row from each FLF in that row. It accesses the rowMin
-     *  ArrayList that we filled earlier to obtain the minimum FLF for a row. */
-    void subtractMin() {
-        for (int i = 0; i < numberOfPairs; i++) {
-            ArrayList<Double> row = flfMatrix.get(i);
-            for (int j = 0; j < numberOfPairs; j++) {
-                double oldVal = row.get(j);
-                row.set(j, oldVal - rowMin.get(i));
-            }
-            flfMatrix.set(i, row);
-        }
-        setMins();
-    }
-
-    /** Method that empties an ArrayList of booleans, and adds one false for each assignment that will
-     *  be formed at the end of the problem.
-     *  @param list ArrayList of booleans that will be emptied and filled with false booleans. */
-    void resetList(ArrayList<Boolean> list) {
-        list.clear();
-        for (int i = 0; i < numberOfPairs; i++) {
-            list.add(i, false);
-        }
-    }
-
-    /** Method that uses several helper methods to find the optimal horizontal and vertical lines to cover all
-     *  zeros in the flfMatrix. It updates the rowCover and colCover ArrayList to true if a
-     *  column or row is covered, and false if it isn't. It continues combinations of horizontal and
-     *  vertical lines until there are the same number of lines as there are assignments to be made, or stops if that
-     *  isn't possible. */
-    void coverZeros() {
-        resetList(colCover);
-        resetList(rowCover);
-        int min = minLines();
-        while (min < numberOfPairs) {
-            double num = findMinUncovered();
-            reduceUncovered(num);
-            addToCovered(num);
-            resetList(colCover);
-            resetList(rowCover);
-            min = minLines();
-        }
-    }
-
-    /** Method that returns the minimum number of lines required to cover all zeros in the flfMatrix.
-     * It does this by covering lines in two different ways, and choosing whichever can cover all zeros in
-     * the least number of lines. First it traverses columns and rows in ascending order, and compares that
-     * to the results obtained from traversing rows in ascending order and columns in descending order.
-     * It updates colCover and rowCover accordingly.
-     * @return The number minimum number of lines needed to cover all zeros in flfMatrix. */
-    int minLines() {
-        ArrayList<Boolean> col1 = new ArrayList<Boolean>();
-        ArrayList<Boolean> row1 = new ArrayList<Boolean>();
-        ArrayList<Boolean> col2 = new ArrayList<Boolean>();
-        ArrayList<Boolean> row2 = new ArrayList<Boolean>();
-        int min1 = 0;
-        int min2 = 0;
-        resetList(col1);
-        resetList(row1);
-        // check columns and rows starting from index zero
-        for (int i = 0; i < numberOfPairs; i++) {
-            for (int j = 0; j < numberOfPairs; j++) {
-                if (flfMatrix.get(i).get(j) == 0 && !row1.get(i) && !col1.get(j)) {
-                    row1.set(i, true);
-                    min1++;
+    /** Method that makes the final assignments without building the FLF matrix, and puts them into the pairs
+     *  HashMap. The FLF of a pair depends only on the length of the tutor's name and on the length and number of
+     *  vowels of the player's name, so tutors are grouped by name length and players by name length and vowels,
+     *  and everyone in a group is interchangeable. The Transportation class decides how many tutors of each group
+     *  to pair with players of each group, as a minimization problem with cost maxSingleFLF minus the FLF, and
+     *  the groups are then paired off person by person. When the tutors and players are not equal in number, one
+     *  extra group on the smaller side, with an FLF of 0 with everyone, takes up the people left out. The work
+     *  depends on the number of groups and on n, not on n squared. */
+    void assignGrouped() {
+        HashMap<Long, Integer> tutorGroupOf = new HashMap<Long, Integer>();
+        HashMap<Long, Integer> playerGroupOf = new HashMap<Long, Integer>();
+        ArrayList<ArrayList<Integer>> tutorGroups = new ArrayList<ArrayList<Integer>>();
+        ArrayList<ArrayList<Integer>> playerGroups = new ArrayList<ArrayList<Integer>>();
+        for (int i = 0; i < tutors.size(); i++) {
+            addToGroup(i, tutors.get(i).getLength(), tutorGroupOf, tutorGroups);
+        }
+        for (int j = 0; j < players.size(); j++) {
+            Person player = players.get(j);
+            addToGroup(j, ((long) player.getLength() << 32) | player.getVowels(), playerGroupOf, playerGroups);
+        }
+        int realTutorGroups = tutorGroups.size();
+        int realPlayerGroups = playerGroups.size();
+        int extra = tutors.size() - players.size();
+        int numTutorGroups = realTutorGroups + (extra < 0 ? 1 : 0);
+        int numPlayerGroups = realPlayerGroups + (extra > 0 ? 1 : 0);
+        long[] supply = new long[numTutorGroups];
+        long[] demand = new long[numPlayerGroups];
+        double[] cost = new double[numTutorGroups * numPlayerGroups];
+        for (int a = 0; a < realTutorGroups; a++) {
+            supply[a] = tutorGroups.get(a).size();
+            Person tutor = tutors.get(tutorGroups.get(a).get(0));
+            for (int b = 0; b < realPlayerGroups; b++) {
+                Person player = players.get(playerGroups.get(b).get(0));
+                double FLF = MathHelpers.computeFLF(tutor, player);
+                cost[a * numPlayerGroups + b] = FLF;
+                if (FLF > maxSingleFLF) {
+                    maxSingleFLF = FLF;
                 }
             }
         }
-        for (int i = 0; i < numberOfPairs; i++) {
-            for (int j = 0; j < numberOfPairs; j++) {
-                if (flfMatrix.get(i).get(j) == 0 && !row1.get(i) && !col1.get(j)) {
-                    col1.set(j, true);
-                    min1++;
+        for (int b = 0; b < realPlayerGroups; b++) {
+            demand[b] = playerGroups.get(b).size();
+        }
+        if (extra < 0) {
+            supply[realTutorGroups] = -extra;
+        } else if (extra > 0) {
+            demand[realPlayerGroups] = extra;
+        }
+        for (int k = 0; k < cost.length; k++) {
+            cost[k] = maxSingleFLF - cost[k];
+        }
+        long[] flow = new Transportation(supply, demand, cost).solve();
+        int[] nextPlayer = new int[numPlayerGroups];
+        for (int a = 0; a < realTutorGroups; a++) {
+            ArrayList<Integer> tutorGroup = tutorGroups.get(a);
+            int nextTutor = 0;
+            for (int b = 0; b < numPlayerGroups; b++) {
+                long units = flow[a * numPlayerGroups + b];
+                if (b == realPlayerGroups) {
+                    nextTutor += units;
+                    continue;
+                }
+                ArrayList<Integer> playerGroup = playerGroups.get(b);
+                for (long f = units; f > 0; f--) {
+                    pairs.put(tutorGroup.get(nextTutor), playerGroup.get(nextPlayer[b]));
+                    nextTutor += 1;
+                    nextPlayer[b] += 1;
                 }
             }
         }
+    }
 
-        resetList(col2);
-        resetList(row2);
-        // check rows starting from index zero, columns starting from the largest index
-        for (int i = numberOfPairs - 1; i >= 0; i--) {
-            for (int j = 0; j < numberOfPairs; j++) {
-                if (flfMatrix.get(i).get(j) == 0 && !row2.get(i) && !col2.get(j)) {
-                    col2.set(j, true);
-                    min2++;
-                }
+    /** Method that makes the final assignments while keeping only about 2k + 1 candidate partners for each person,
+     *  and puts them into the pairs HashMap, using O(n * k) memory. People are grouped as in assignGrouped and
+     *  matched one at a time by the SparseHungarian class, then missing edges with negative reduced costs are added
+     *  until none are left, which proves the assignment is the best one. Each round of this pricing searches again
+     *  for most people, so after MAX_PRICING_ROUNDS rounds, PRICING_EDGE_FACTOR times the starting edges or
+     *  PRICING_WORK_FACTOR times the starting search, it calls assignGrouped instead. On large rosters it usually
+     *  does, and takes 3 to 6 times as long as assignGrouped alone (4 s with k = 3 for 50,000 people).
+     *  @param k The number of candidate partners kept for each person, before the extra ones; at least 1. */
+    void assignSparse(int k) {
+        tutorsAreRows = tutors.size() <= players.size();
+        int rows = numberOfPairs;
+        int cols = Math.max(tutors.size(), players.size());
+        HashMap<Long, Integer> groupOf = new HashMap<Long, Integer>();
+        ArrayList<ArrayList<Integer>> groups = new ArrayList<ArrayList<Integer>>();
+        for (int i = 0; i < rows; i++) {
+            addToGroup(i, groupKey(i, tutorsAreRows), groupOf, groups);
+        }
+        HashMap<Long, Integer> colGroupOf = new HashMap<Long, Integer>();
+        ArrayList<ArrayList<Integer>> colGroups = new ArrayList<ArrayList<Integer>>();
+        for (int j = 0; j < cols; j++) {
+            addToGroup(j, groupKey(j, !tutorsAreRows), colGroupOf, colGroups);
+        }
+        int[] colGroup = new int[cols];
+        for (int c = 0; c < colGroups.size(); c++) {
+            for (int j : colGroups.get(c)) {
+                colGroup[j] = c;
+            }
+        }
+        double[][] cost = new double[groups.size() + 1][colGroups.size()];
+        for (int g = 0; g < groups.size(); g++) {
+            for (int c = 0; c < colGroups.size(); c++) {
+                int i = groups.get(g).get(0);
+                int j = colGroups.get(c).get(0);
+                cost[g][c] = tutorsAreRows ? MathHelpers.computeFLF(tutors.get(i), players.get(j))
+                        : MathHelpers.computeFLF(tutors.get(j), players.get(i));
+                maxSingleFLF = Math.max(maxSingleFLF, cost[g][c]);
+            }
+        }
+        for (int g = 0; g < groups.size(); g++) {
+            for (int c = 0; c < colGroups.size(); c++) {
+                cost[g][c] = maxSingleFLF - cost[g][c];
             }
         }
-        for (int i = numberOfPairs - 1; i >= 0; i--) {
-            for (int j = 0; j < numberOfPairs; j++) {
-                if (flfMatrix.get(i).get(j) == 0 && !row2.get(i) && !col2.get(j)) {
-                    row2.set(i, true);
-                    min2++;
+        SparseHungarian sparse = new SparseHungarian(cols, cols);
+        int[] colMatch = sparse.getColMatch();
+        long startEdges = 0;
+        for (int g = 0; g < groups.size(); g++) {
+            ArrayList<Integer> group = groups.get(g);
+            int[] order = partnerOrder(cost[g], colGroups, cols);
+            int top = Math.min(k, cols);
+            int nextFree = top;
+            for (int t = 0; t < group.size(); t++) {
+                int i = group.get(t);
+                int from = Math.max(t, top);
+                int to = Math.max(from, Math.min(t + k, cols));
+                while (nextFree < cols && colMatch[order[nextFree]] != SparseHungarian.NONE) {
+                    nextFree += 1;
                 }
+                boolean addFree = nextFree < cols && (nextFree < from || nextFree >= to);
+                int[] edges = new int[top + to - from + (addFree ? 1 : 0)];
+                System.arraycopy(order, 0, edges, 0, top);
+                System.arraycopy(order, from, edges, top, to - from);
+                if (addFree) {
+                    edges[edges.length - 1] = order[nextFree];
+                }
+                sparse.addEdges(i, edges, edgeCosts(cost[g], colGroup, edges));
+                startEdges += edges.length;
+                sparse.augment(i);
             }
         }
-        if (min1 < min2) {
-            colCover = col1;
-            rowCover = row1;
-            return min1;
-        } else {
-            colCover = col2;
-            rowCover = row2;
-            return min2;
-        }
-    }
-
-    /** Method to find the smallest number that is not covered. It accesses rowCover and colCover to
-     *  determine if a row or column is covered.
-     *  @return The smallest double that is not covered. */
-    double findMinUncovered() {
-        Double min = Double.POSITIVE_INFINITY;
-        for (int i = 0; i < numberOfPairs; i++) {
-            if (!rowCover.get(i)) {
-                for (int j = 0; j < numberOfPairs; j++) {
-                    double num = flfMatrix.get(i).get(j);
-                    if (!colCover.get(j) && num < min) {
-                        min = num;
-                    }
+        ArrayList<Integer> nobody = new ArrayList<Integer>();
+        for (int j = 0, i = rows; j < cols; j++) {
+            if (colMatch[j] == SparseHungarian.NONE) {
+                int[] edge = {j};
+                sparse.addEdges(i, edge, edgeCosts(cost[groups.size()], colGroup, edge));
+                startEdges += 1;
+                sparse.augment(i);
+                nobody.add(i);
+                i += 1;
+            }
+        }
+        groups.add(nobody);
+        ArrayList<Integer> released = new ArrayList<Integer>();
+        long pricedEdges = 0;
+        long workLimit = (PRICING_WORK_FACTOR + 1) * sparse.getWork();
+        int rounds = 0;
+        do {
+            released.clear();
+            for (int g = 0; g < groups.size(); g++) {
+                if (!groups.get(g).isEmpty()) {
+                    pricedEdges += priceGroup(sparse, groups.get(g), cost[g], colGroup, k, released);
+                }
+            }
+            rounds += 1;
+            if (!released.isEmpty()
+                    && (rounds > MAX_PRICING_ROUNDS || pricedEdges > PRICING_EDGE_FACTOR * startEdges)) {
+                assignGrouped();
+                return;
+            }
+            for (int i : released) {
+                if (sparse.getWork() > workLimit) {
+                    assignGrouped();
+                    return;
                 }
+                sparse.augment(i);
+            }
+        } while (!released.isEmpty());
+        int[] match = sparse.getRowMatch();
+        for (int i = 0; i < rows; i++) {
+            if (tutorsAreRows) {
+                pairs.put(i, match[i]);
+            } else {
+                pairs.put(match[i], i);
             }
         }
-        return min;
     }
 
-    /** Method to subtract a number from every uncovered number. Update minimum lists.
-     *  @param min The number to subtract from each uncovered number. */
-    void reduceUncovered(double min) {
-        for (int i = 0; i < numberOfPairs; i++) {
-            for (int j = 0; j < numberOfPairs; j++) {
-                if (!rowCover.get(i) && !colCover.get(j)) {
-                    double oldVal = flfMatrix.get(i).get(j);
-                    double newVal = oldVal - min;
-                    flfMatrix.get(i).set(j, newVal);
-                    if (newVal < rowMin.get(i)) {
-                        rowMin.set(i, newVal);
-                    }
-                    if (newVal< colMin.get(j)) {
-                        colMin.set(j, newVal);
-                    }
-                }
-            }
+    /** Method that returns the features of a person that decide their FLF with anyone: the name length of a
+     *  tutor, or the name length and number of vowels of a player.
+     * @param index The index of the person in the tutor or player ArrayList.
+     * @param isTutor True if the person is a tutor.
+     * @return The features, packed into one number. */
+    private long groupKey(int index, boolean isTutor) {
+        if (isTutor) {
+            return tutors.get(index).getLength();
         }
+        Person player = players.get(index);
+        return ((long) player.getLength() << 32) | player.getVowels();
     }
 
-    /** Method to add a number to every number which is in a covered column and covered row.
-     *  @param min The number to add to each number located in a covered column and covered row. */
-    void addToCovered(double min) {
-        for (int i = 0; i < numberOfPairs; i++) {
-            for (int j = 0; j < numberOfPairs; j++) {
-                if (rowCover.get(i) && colCover.get(j)) {
-                    double oldVal = flfMatrix.get(i).get(j);
-                    flfMatrix.get(i).set(j, oldVal + min);
-                }
+    /** Method that lists the people on the larger side in order of their cost with a group, cheapest first.
+     * @param groupCost The cost of the group with each group on the larger side.
+     * @param colGroups The people in each group on the larger side.
+     * @param cols The number of people on the larger side.
+     * @return The indices of the people on the larger side, cheapest first. */
+    private static int[] partnerOrder(final double[] groupCost, ArrayList<ArrayList<Integer>> colGroups,
+                                      int cols) {
+        Integer[] groupOrder = new Integer[groupCost.length];
+        for (int c = 0; c < groupOrder.length; c++) {
+            groupOrder[c] = c;
+        }
+        Arrays.sort(groupOrder, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(groupCost[a], groupCost[b]);
+            }
+        });
+        int[] result = new int[cols];
+        int next = 0;
+        for (int c : groupOrder) {
+            for (int j : colGroups.get(c)) {
+                result[next] = j;
+                next += 1;
             }
         }
+        return result;
     }
 
-    /** Method that makes the final assignments, and puts them into the pairs HashMap. The first while loop
-     *  finds all pairings that are definitely increase total FLF (if there is only one zero in a row/column).
-     *  The second while loop handles the situation where two or more assignments have the same FLF, and
-     *  the total FLF will not be different if either assignment is made (it there is more than one zero per
-     *  row/column).
-     *  Essentially, this methods tries to create assignments so that sum of all chosen places in matrix equals 0. */
-    void assign() {
-        resetList(colCover);
-        resetList(rowCover);
-        int clock = 1;
-        int oldClock = 0;
-        int assignments = 0;
-        while (clock != oldClock && assignments <= numberOfPairs) {
-            clock = oldClock;
-            int detector = oldClock;
-            for (int i = 0; i < numberOfPairs; i++) {
-                for (int j = 0; j < numberOfPairs; j++) {
-                    if (uniqueZeroRow(i, j)) {
-                        rowCover.set(i, true);
-                        colCover.set(j, true);
-                        pairs.put(i,j);
-                        detector++;
-                        assignments++;
-                    }
-                }
+    /** Method that returns the costs of a row with some columns in the sparse solver.
+     * @param groupCost The cost of the row's group with each group on the larger side.
+     * @param colGroup The group of each person on the larger side.
+     * @param cols The columns.
+     * @return The cost with each of them. */
+    private static double[] edgeCosts(double[] groupCost, int[] colGroup, int[] cols) {
+        double[] result = new double[cols.length];
+        for (int e = 0; e < cols.length; e++) {
+            result[e] = groupCost[colGroup[cols[e]]];
+        }
+        return result;
+    }
+
+    /** Method that checks whether edges missing from a group could make the sparse assignment cheaper, and if so
+     *  releases every member with a missing edge of negative reduced cost. Everyone in the group has the same
+     *  costs, so these are the members whose potential is above the smallest slack. In order of their potential,
+     *  they are given the k missing edges of most negative reduced cost, the next k, and so on, keeping to edges
+     *  whose reduced cost is negative for them; one with no such edges left starts again from the first.
+     * @param sparse The solver, with every row matched.
+     * @param group The rows of the group.
+     * @param groupCost The cost of the group with each group on the larger side.
+     * @param colGroup The group of each person on the larger side.
+     * @param k The number of edges to add for each member released.
+     * @param released The list to add the released rows to.
+     * @return The number of edges added. */
+    private static int priceGroup(SparseHungarian sparse, ArrayList<Integer> group, double[] groupCost,
+                                   int[] colGroup, int k, ArrayList<Integer> released) {
+        final double[] rowPotentials = sparse.getRowPotentials();
+        double[] colPotentials = sparse.getColPotentials();
+        final double[] slack = new double[colGroup.length];
+        double minSlack = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < colGroup.length; j++) {
+            slack[j] = groupCost[colGroup[j]] - colPotentials[j];
+            minSlack = Math.min(minSlack, slack[j]);
+        }
+        ArrayList<Integer> members = new ArrayList<Integer>();
+        for (int i : group) {
+            if (rowPotentials[i] - EPSILON > minSlack) {
+                members.add(i);
             }
-            for (int i = 0; i < numberOfPairs; i++) {
-                for (int j = 0; j < numberOfPairs; j++) {
-                    if (uniqueZeroCol(i, j)) {
-                        rowCover.set(i, true);
-                        colCover.set(j, true);
-                        pairs.put(i,j);
-                        detector++;
-                        assignments++;
-                    }
-                }
+        }
+        if (members.isEmpty()) {
+            return 0;
+        }
+        Collections.sort(members, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(rowPotentials[b], rowPotentials[a]);
             }
-            clock = detector;
-        }
-        while (assignments != numberOfPairs) {
-            for (int i = 0; i < numberOfPairs; i++) {
-                for (int j = 0; j < numberOfPairs; j++) {
-                    if (!rowCover.get(i) && !colCover.get(j)) {
-                        rowCover.set(i, true);
-                        colCover.set(j, true);
-                        pairs.put(i,j);
-                        assignments++;
-                    }
-                }
+        });
+        double limit = rowPotentials[members.get(0)] - EPSILON;
+        ArrayList<Integer> candidates = new ArrayList<Integer>();
+        for (int j = 0; j < colGroup.length; j++) {
+            if (slack[j] < limit) {
+                candidates.add(j);
             }
         }
-    }
-
-    /** Method that returns true if there is a zero at position i,j in flfMatrix and there
-     *  are no other zeros in the row i.
-     *  @param i The row index of the place we are checking
-     *  @param j The column index of the place we are checking
-     *  @return True iff position i,j contains a zero, and it is the only zero in row i. */
-    boolean uniqueZeroRow(int i, int j) {
-        if (flfMatrix.get(i).get(j) == 0) {
-            boolean onlyZero = true;
-            for (int k = 0; k < numberOfPairs; k++) {
-                if (flfMatrix.get(i).get(k) == 0 && k != j) {
-                    onlyZero = false;
-                }
+        Collections.sort(candidates, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(slack[a], slack[b]);
             }
-            if (rowCover.get(i) || colCover.get(j)) {
-                onlyZero = false;
+        });
+        int added = 0;
+        int usable = candidates.size();
+        for (int r = 0; r < members.size(); r++) {
+            int i = members.get(r);
+            while (slack[candidates.get(usable - 1)] >= rowPotentials[i] - EPSILON) {
+                usable -= 1;
             }
-            return onlyZero;
-        } else {
-            return false;
+            int from = r * k < usable ? r * k : 0;
+            int[] edges = new int[Math.min(k, usable - from)];
+            for (int e = 0; e < edges.length; e++) {
+                edges[e] = candidates.get(from + e);
+            }
+            sparse.release(i);
+            sparse.addEdges(i, edges, edgeCosts(groupCost, colGroup, edges));
+            released.add(i);
+            added += edges.length;
         }
+        return added;
     }
 
-    /** Method that return true if there is a zero at position i,j in flfMatrix and there
-     *  are no other zeros in the column j.
-     *  @param i The row index of the place we are checking.
-     *  @param j The column index of the place we are checking.
-     *  @return True iff position i,j contains a zero, and it is the only zero in column j. */
-    boolean uniqueZeroCol(int i, int j) {
-        if (flfMatrix.get(i).get(j) == 0) {
-            boolean onlyZero = true;
-            for (int k = 0; k < numberOfPairs; k++) {
-                if (flfMatrix.get(k).get(j) == 0 && k != i) {
-                    onlyZero = false;
-                }
+    /** Method that adds a person to the group of everyone with the same key, starting a new group if needed.
+     * @param person The index of the person in the tutor or player ArrayList.
+     * @param key The features of the person that decide their group.
+     * @param groupOf The index of the group of each key seen so far.
+     * @param groups The indices of the people in each group. */
+    private static void addToGroup(int person, long key, HashMap<Long, Integer> groupOf,
+                                   ArrayList<ArrayList<Integer>> groups) {
+        Integer group = groupOf.get(key);
+        if (group == null) {
+            group = groups.size();
+            groupOf.put(key, group);
+            groups.add(new ArrayList<Integer>());
+        }
+        groups.get(group).add(person);
+    }
+
+
+    /** Method that adds a tutor after the assignment has been made, and updates the assignment. The new tutor
+     *  takes over a row of the solver that stands for nobody, or a new row if there is none, and the assignment
+     *  is repaired from the previous one by a single augmenting path, in O(n^2) time.
+     *  @param name The name of the new tutor.
+     *  @return The index of the new tutor in the tutor ArrayList. */
+    int addTutor(String name) {
+        startIncremental();
+        addPerson(name, 0);
+        int tutor = tutors.size() - 1;
+        int row = rowTutor.indexOf(-1);
+        if (row < 0) {
+            row = growSolver();
+        }
+        rowTutor.set(row, tutor);
+        tutorRow.add(row);
+        solver.changeRow(row, rowCosts(tutor));
+        updatePairs();
+        return tutor;
+    }
+
+    /** Method that adds a player after the assignment has been made, and updates the assignment in O(n^2) time,
+     *  the same way as addTutor.
+     *  @param name The name of the new player.
+     *  @return The index of the new player in the player ArrayList. */
+    int addPlayer(String name) {
+        startIncremental();
+        addPerson(name, 1);
+        int player = players.size() - 1;
+        int col = colPlayer.indexOf(-1);
+        if (col < 0) {
+            col = growSolver();
+        }
+        colPlayer.set(col, player);
+        playerCol.add(col);
+        solver.changeCol(col, colCosts(player));
+        updatePairs();
+        return player;
+    }
+
+    /** Method that removes a tutor after the assignment has been made, and updates the assignment. The tutor's
+     *  row of the solver comes to stand for nobody, and the assignment is repaired by a single augmenting path,
+     *  in O(n^2) time. The tutor stays in the tutor ArrayList, so other indices do not change, but is never
+     *  paired again.
+     *  @param tutor The index of the tutor in the tutor ArrayList. */
+    void removeTutor(int tutor) {
+        startIncremental();
+        int row = tutorRow.get(tutor);
+        if (row < 0) {
+            return;
+        }
+        tutorRow.set(tutor, -1);
+        rowTutor.set(row, -1);
+        solver.changeRow(row, rowCosts(-1));
+        updatePairs();
+    }
+
+    /** Method that removes a player after the assignment has been made, and updates the assignment in O(n^2)
+     *  time, the same way as removeTutor.
+     *  @param player The index of the player in the player ArrayList. */
+    void removePlayer(int player) {
+        startIncremental();
+        int col = playerCol.get(player);
+        if (col < 0) {
+            return;
+        }
+        playerCol.set(player, -1);
+        colPlayer.set(col, -1);
+        solver.changeCol(col, colCosts(-1));
+        updatePairs();
+    }
+
+    /** Method that finds a tutor or player who has not left by name.
+     *  @param name The name of the person.
+     *  @param job 0 for a tutor, 1 for a player.
+     *  @return The index of the first person with that job and name who has not left, or -1 if there is none. */
+    int findPerson(String name, int job) {
+        ArrayList<Person> people = job == 0 ? tutors : players;
+        ArrayList<Integer> places = job == 0 ? tutorRow : playerCol;
+        for (int k = 0; k < people.size(); k++) {
+            if (people.get(k).getName().equals(name) && (k >= places.size() || places.get(k) >= 0)) {
+                return k;
             }
-            if (rowCover.get(i) || colCover.get(j)) {
-                onlyZero = false;
+        }
+        return -1;
+    }
+
+    /** Method that sets up the solver for changes, if it is not set up yet. When the last assignment was made by
+     *  assign with as many tutors as players, its solver is kept, with its matching and potentials. Otherwise a
+     *  square problem with rows or columns for nobody is built and solved once from scratch. */
+    private void startIncremental() {
+        if (solver != null && !rowTutor.isEmpty()) {
+            return;
+        }
+        nobodyCost = maxSingleFLF + 1;
+        int size = Math.max(tutors.size(), players.size());
+        for (int k = 0; k < size; k++) {
+            rowTutor.add(k < tutors.size() ? k : -1);
+            colPlayer.add(k < players.size() ? k : -1);
+        }
+        for (int i = 0; i < tutors.size(); i++) {
+            tutorRow.add(i);
+        }
+        for (int j = 0; j < players.size(); j++) {
+            playerCol.add(j);
+        }
+        if (solver != null && solver.getRows() == size && solver.getCols() == size) {
+            return;
+        }
+        double[] cost = new double[size * size];
+        for (int row = 0; row < size; row++) {
+            System.arraycopy(rowCosts(rowTutor.get(row)), 0, cost, row * size, size);
+        }
+        solver = new Hungarian(cost, size, size);
+        solver.solve();
+        updatePairs();
+    }
+
+    /** Method that adds a row and a column, both standing for nobody, to the solver.
+     *  @return The index of the new row, which is also the index of the new column. */
+    private int growSolver() {
+        solver.grow(nobodyCost);
+        rowTutor.add(-1);
+        colPlayer.add(-1);
+        return rowTutor.size() - 1;
+    }
+
+    /** Method that returns the costs of a tutor with each column of the solver.
+     *  @param tutor The index of the tutor, or -1 for nobody.
+     *  @return The cost of the tutor with each column. */
+    private double[] rowCosts(int tutor) {
+        double[] result = new double[colPlayer.size()];
+        for (int col = 0; col < result.length; col++) {
+            int player = colPlayer.get(col);
+            result[col] = pairCost(tutor, player);
+        }
+        return result;
+    }
+
+    /** Method that returns the costs of a player with each row of the solver.
+     *  @param player The index of the player, or -1 for nobody.
+     *  @return The cost of the player with each row. */
+    private double[] colCosts(int player) {
+        double[] result = new double[rowTutor.size()];
+        for (int row = 0; row < result.length; row++) {
+            result[row] = pairCost(rowTutor.get(row), player);
+        }
+        return result;
+    }
+
+    /** Method that returns the cost in the solver of a tutor and a player.
+     *  @param tutor The index of the tutor, or -1 for nobody.
+     *  @param player The index of the player, or -1 for nobody.
+     *  @return nobodyCost if either is nobody, otherwise maxSingleFLF minus their FLF. */
+    private double pairCost(int tutor, int player) {
+        if (tutor < 0 || player < 0) {
+            return nobodyCost;
+        }
+        return maxSingleFLF - MathHelpers.computeFLF(tutors.get(tutor), players.get(player));
+    }
+
+    /** Method that refills the pairs HashMap from the solver's matching, leaving out anyone matched with nobody,
+     *  and counts the pairs again without the people who have left. */
+    private void updatePairs() {
+        numberOfPairs = Math.min(countPresent(tutorRow), countPresent(playerCol));
+        pairs.clear();
+        int[] match = solver.getRowMatch();
+        for (int row = 0; row < match.length; row++) {
+            int tutor = rowTutor.get(row);
+            int player = colPlayer.get(match[row]);
+            if (tutor >= 0 && player >= 0) {
+                pairs.put(tutor, player);
             }
-            return onlyZero;
-        } else {
-            return false;
         }
     }
 
+    /** Method that counts the people who have not left.
+     *  @param places The row or column of each tutor or player, -1 for those who have left.
+     *  @return The number of entries that are not -1. */
+    private static int countPresent(ArrayList<Integer> places) {
+        int count = 0;
+        for (int place : places) {
+            if (place >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
 
     /* All access methods. */
     /** @return The total FLF for the final assignments. */
@@ -414,7 +816,7 @@ public class Factor {
     void incTotalFLF(double num) {
         totalFLF += num;
     }
-    /** @return The number of assignments that will be made (same as number of player). */
+    /** @return The number of assignments that will be made (the smaller of the numbers of tutors and players). */
     int getNumberOfPairs() {
         return numberOfPairs;
     }
@@ -426,14 +828,6 @@ public class Factor {
     ArrayList<Person> getTutorList() {
         return tutors;
     }
-    /** @return The working FLF matrix (the one altered throughout the running of the program). */
-    ArrayList<ArrayList<Double>> getFLFMatrix() {
-        return flfMatrix;
-    }
-    /** @return The original FLF matrix containing original calculated FLFs. */
-    ArrayList<ArrayList<Double>> getOriginalMatrix() {
-        return originalMatrix;
-    }
     /** @return The HashMap of all final assignments made. */
     HashMap<Integer, Integer> getPairs() {
         return pairs;
@@ -0,0 +1,330 @@
+package Challenge;
+
+import java.util.Arrays;
+
+/**
+ * @author Zack Mayeda
+ * 3/15/12
+ * Fun-Learning Factor, Hungarian class
+ * This class solves the assignment problem with the shortest augmenting path form of the Hungarian Algorithm.
+ * It keeps a potential for every row and column, and adds the rows to the matching one at a time. Each new row
+ * is matched by a Dijkstra-like search over the reduced costs (cost - row potential - column potential) for the
+ * cheapest path to a free column, after which the matching is flipped along that path and the potentials are
+ * updated so that every reduced cost stays nonnegative and every matched cell has a reduced cost of 0. Adding one
+ * row takes O(rows * cols) time, so the whole matching takes O(rows^2 * cols) time, and at the end the potentials
+ * prove that no other matching costs less.
+ * The costs are stored row-major in a single array of doubles. There may be more columns than rows, in which case
+ * some columns are left unmatched.
+ */
+public class Hungarian {
+
+    /** Sentinel used by the internal arrays for "no row" or "no column". */
+    static final int NONE = -1;
+
+    /** The costs, row-major: the cost of matching row i with column j is at index i * cols + j. */
+    private double[] cost;
+
+    /** The number of rows. */
+    private int rows;
+
+    /** The number of columns, which is at least the number of rows. */
+    private int cols;
+
+    /** The potential of each row. */
+    private double[] rowPotential;
+
+    /** The potential of each column. */
+    private double[] colPotential;
+
+    /** The column matched with each row, or NONE. */
+    private int[] rowMatch;
+
+    /** The row matched with each column, or NONE. */
+    private int[] colMatch;
+
+    /** The number of rows matched. */
+    private int matched;
+
+    /** For each column, the cheapest reduced cost of a path to it found so far in the current search. */
+    private double[] minSlack;
+
+    /** For each column, the column before it on the cheapest path to it in the current search,
+     *  or NONE if the path starts at the row being added. */
+    private int[] previous;
+
+    /** The columns, ordered so that those the current search has not yet reached come first. */
+    private int[] unvisited;
+
+    /** Constructor method that sets up a solver for the given costs, with nothing matched yet.
+     * @param cost The costs, row-major; the array is used, not copied.
+     * @param rows The number of rows.
+     * @param cols The number of columns, which must be at least the number of rows. */
+    public Hungarian(double[] cost, int rows, int cols) {
+        if (rows > cols) {
+            throw new IllegalArgumentException("more rows than columns: " + rows + " > " + cols);
+        }
+        if (cost.length != rows * cols) {
+            throw new IllegalArgumentException("cost matrix should have " + rows * cols + " cells");
+        }
+        this.cost = cost;
+        this.rows = rows;
+        this.cols = cols;
+        rowPotential = new double[rows];
+        colPotential = new double[cols];
+        rowMatch = new int[rows];
+        colMatch = new int[cols];
+        minSlack = new double[cols];
+        previous = new int[cols];
+        unvisited = new int[cols];
+        Arrays.fill(rowMatch, NONE);
+        Arrays.fill(colMatch, NONE);
+    }
+
+    /** Method that matches every row with a column so that the total cost is as small as possible.
+     * @return The column matched with each row. */
+    int[] solve() {
+        if (matched == 0) {
+            reduce();
+        }
+        for (int i = 0; i < rows; i++) {
+            if (rowMatch[i] == NONE) {
+                augment(i);
+            }
+        }
+        return rowMatch;
+    }
+
+    /** Method that gives the rows and columns starting potentials and matches as many rows as it cheaply can
+     *  before any search. When there are as many rows as columns, each column potential is set to the smallest cost
+     *  in its column; otherwise the column potentials stay 0, as they must for columns that may be left unmatched.
+     *  Then each row potential is set to the smallest reduced cost in its row, and each row in order is matched
+     *  with the first free column in which its reduced cost is 0, if any. */
+    void reduce() {
+        if (rows == cols) {
+            Arrays.fill(colPotential, Double.POSITIVE_INFINITY);
+            for (int i = 0; i < rows; i++) {
+                int offset = i * cols;
+                for (int j = 0; j < cols; j++) {
+                    colPotential[j] = Math.min(colPotential[j], cost[offset + j]);
+                }
+            }
+        }
+        for (int i = 0; i < rows; i++) {
+            int offset = i * cols;
+            double min = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < cols; j++) {
+                min = Math.min(min, cost[offset + j] - colPotential[j]);
+            }
+            rowPotential[i] = min;
+            for (int j = 0; j < cols; j++) {
+                if (colMatch[j] == NONE && cost[offset + j] - colPotential[j] == min) {
+                    colMatch[j] = i;
+                    rowMatch[i] = j;
+                    matched += 1;
+                    break;
+                }
+            }
+        }
+    }
+
+    /** Method that adds an unmatched row to the matching along the cheapest augmenting path, keeping the
+     *  matching optimal among the rows that are matched.
+     * @param row The unmatched row to add. */
+    void augment(int row) {
+        Arrays.fill(minSlack, Double.POSITIVE_INFINITY);
+        for (int j = 0; j < cols; j++) {
+            unvisited[j] = j;
+        }
+        int left = cols;
+        int current = row;
+        int lastCol = NONE;
+        double reach = 0;
+        while (true) {
+            double base = rowPotential[current];
+            int offset = current * cols;
+            double delta = Double.POSITIVE_INFINITY;
+            int nextIndex = NONE;
+            for (int k = 0; k < left; k++) {
+                int j = unvisited[k];
+                double slack = reach + cost[offset + j] - base - colPotential[j];
+                if (slack < minSlack[j]) {
+                    minSlack[j] = slack;
+                    previous[j] = lastCol;
+                }
+                if (minSlack[j] < delta || (minSlack[j] == delta && colMatch[j] == NONE)) {
+                    delta = minSlack[j];
+                    nextIndex = k;
+                }
+            }
+            int next = unvisited[nextIndex];
+            left -= 1;
+            unvisited[nextIndex] = unvisited[left];
+            unvisited[left] = next;
+            reach = delta;
+            lastCol = next;
+            if (colMatch[next] == NONE) {
+                break;
+            }
+            current = colMatch[next];
+        }
+        rowPotential[row] += reach;
+        for (int k = left + 1; k < cols; k++) {
+            int j = unvisited[k];
+            double shift = reach - minSlack[j];
+            rowPotential[colMatch[j]] += shift;
+            colPotential[j] -= shift;
+        }
+        for (int j = lastCol; j != NONE; ) {
+            int before = previous[j];
+            int i = before == NONE ? row : colMatch[before];
+            colMatch[j] = i;
+            rowMatch[i] = j;
+            j = before;
+        }
+        matched += 1;
+    }
+
+    /** Method that replaces the costs of one row and matches the rows again, starting from the current matching
+     *  and potentials. The row gives up its column, its potential is lowered until none of its reduced costs is
+     *  negative, and it is added back by one augmenting path, so this takes O(rows * cols) time instead of
+     *  solving again from scratch. Every row must be matched beforehand.
+     * @param i The row to change.
+     * @param rowCosts The new costs of the row, one for each column. */
+    void changeRow(int i, double[] rowCosts) {
+        unmatchRow(i);
+        int offset = i * cols;
+        double min = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < cols; j++) {
+            cost[offset + j] = rowCosts[j];
+            min = Math.min(min, rowCosts[j] - colPotential[j]);
+        }
+        rowPotential[i] = min;
+        augment(i);
+    }
+
+    /** Method that replaces the costs of one column and matches the rows again, starting from the current
+     *  matching and potentials. The row matched with the column gives it up, the column's potential is lowered
+     *  until none of its reduced costs is negative, and that row is added back by one augmenting path, so this
+     *  takes O(rows * cols) time. There must be as many rows as columns, all of them matched.
+     * @param j The column to change.
+     * @param colCosts The new costs of the column, one for each row. */
+    void changeCol(int j, double[] colCosts) {
+        int i = colMatch[j];
+        unmatchRow(i);
+        double min = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < rows; k++) {
+            cost[k * cols + j] = colCosts[k];
+            min = Math.min(min, colCosts[k] - rowPotential[k]);
+        }
+        colPotential[j] = min;
+        augment(i);
+    }
+
+    /** Method that adds one row and one column to a square problem, every new cell costing the same, and matches
+     *  them with each other, keeping the rest of the matching. The new column's potential is the largest that
+     *  leaves no reduced cost in it negative, and the new row's makes the new corner cell's reduced cost 0. If no
+     *  old cell costs more than the new cells, no reduced cost in the new row is negative either, and the
+     *  matching stays optimal. This copies the cost array, so it takes O(rows * cols) time.
+     * @param newCost The cost of every cell in the new row and the new column. */
+    void grow(double newCost) {
+        int oldCols = cols;
+        rows += 1;
+        cols += 1;
+        double[] newCosts = new double[rows * cols];
+        for (int i = 0; i < rows - 1; i++) {
+            System.arraycopy(cost, i * oldCols, newCosts, i * cols, oldCols);
+            newCosts[i * cols + oldCols] = newCost;
+        }
+        for (int j = 0; j < cols; j++) {
+            newCosts[(rows - 1) * cols + j] = newCost;
+        }
+        cost = newCosts;
+        double limit = rows == 1 ? newCost : Double.POSITIVE_INFINITY;
+        for (int i = 0; i < rows - 1; i++) {
+            limit = Math.min(limit, newCost - rowPotential[i]);
+        }
+        rowPotential = Arrays.copyOf(rowPotential, rows);
+        colPotential = Arrays.copyOf(colPotential, cols);
+        colPotential[cols - 1] = limit;
+        rowPotential[rows - 1] = newCost - limit;
+        rowMatch = Arrays.copyOf(rowMatch, rows);
+        colMatch = Arrays.copyOf(colMatch, cols);
+        rowMatch[rows - 1] = cols - 1;
+        colMatch[cols - 1] = rows - 1;
+        matched += 1;
+        minSlack = new double[cols];
+        previous = new int[cols];
+        unvisited = new int[cols];
+    }
+
+    /** Method that replaces the matching and potentials with ones found earlier, for the same costs or for costs
+     *  that are nowhere lower, so that the matching can be changed again without solving from scratch. The arrays
+     *  are copied.
+     * @param rowPotentials The potential of each row.
+     * @param colPotentials The potential of each column.
+     * @param rowMatches The column matched with each row; every row must be matched. */
+    void setSolution(double[] rowPotentials, double[] colPotentials, int[] rowMatches) {
+        System.arraycopy(rowPotentials, 0, rowPotential, 0, rows);
+        System.arraycopy(colPotentials, 0, colPotential, 0, cols);
+        System.arraycopy(rowMatches, 0, rowMatch, 0, rows);
+        Arrays.fill(colMatch, NONE);
+        for (int i = 0; i < rows; i++) {
+            colMatch[rowMatch[i]] = i;
+        }
+        matched = rows;
+    }
+
+    /** Method that takes a row out of the matching, freeing its column.
+     * @param i The row, which must be matched. */
+    private void unmatchRow(int i) {
+        colMatch[rowMatch[i]] = NONE;
+        rowMatch[i] = NONE;
+        matched -= 1;
+    }
+
+    /** @return The number of rows. */
+    int getRows() {
+        return rows;
+    }
+
+    /** @return The number of columns. */
+    int getCols() {
+        return cols;
+    }
+
+    /** @return The costs, row-major. Changes to the array change the problem without updating the matching. */
+    double[] getCost() {
+        return cost;
+    }
+
+    /** @return The column matched with each row, or NONE for a row not yet matched. */
+    int[] getRowMatch() {
+        return rowMatch;
+    }
+
+    /** @return The row matched with each column, or NONE for an unmatched column. */
+    int[] getColMatch() {
+        return colMatch;
+    }
+
+    /** @return The potential of each row. */
+    double[] getRowPotentials() {
+        return rowPotential;
+    }
+
+    /** @return The potential of each column. */
+    double[] getColPotentials() {
+        return colPotential;
+    }
+
+    /** @return The total cost of the current matching. */
+    double getTotalCost() {
+        double total = 0;
+        for (int i = 0; i < rows; i++) {
+            if (rowMatch[i] != NONE) {
+                total += cost[i * cols + rowMatch[i]];
+            }
+        }
+        return total;
+    }
+}
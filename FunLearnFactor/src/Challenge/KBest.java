@@ -0,0 +1,242 @@
+package Challenge;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * @author Zack Mayeda
+ * 3/15/12
+ * Fun-Learning Factor, KBest class
+ * This class lists the matchings of an assignment problem in order of total cost, best first, with Murty's
+ * method. Each matching found stands for the set of matchings that share its forced cells and avoid its excluded
+ * cells. Once it is listed, the rest of that set is split into one part per row that is not yet forced: the part
+ * in which the earlier rows keep their columns and that row does not. Each part goes into a priority queue with a
+ * lower bound on its cost, found in O(n) time from the reduced costs of its row, and is only solved once it
+ * reaches the front of the queue; it then goes back in with its best matching, and the cheapest matching at the
+ * front of the queue is the next one listed. Most parts are never solved, so listing a matching usually takes
+ * O(n^2) time.
+ * A part is not solved from scratch. The matching it was split from is still optimal once the earlier rows are
+ * forced, since forcing only raises costs, so excluding the row's column only needs that row to be added back by
+ * one augmenting path of the Hungarian class, in O(n^2) time. Every part is solved in the one cost matrix: its
+ * excluded cells are given a cost larger than any matching without them, and each forced row has its column made
+ * that much cheaper, with its potential lowered to match. Both are undone afterwards. A part with no matching is
+ * seen by its total cost and dropped. When there are more columns than rows, rows that cost 0 with every column
+ * are added to make the problem square; they take up the columns left over and are never split on.
+ */
+public class KBest {
+
+    /** The costs of the problem, padded to a square, row-major. Parts change cells while they are solved and
+     *  put them back afterwards. */
+    private double[] cost;
+
+    /** The number of rows and of columns of the padded problem. */
+    private int size;
+
+    /** The number of rows of the problem before padding. */
+    private int rows;
+
+    /** The cost given to excluded cells, larger than the total cost of any matching without them. */
+    private double excludedCost;
+
+    /** The solver, on the cost array, that parts are solved with. */
+    private Hungarian solver;
+
+    /** The costs of the row being added back by the solver. */
+    private double[] rowCosts;
+
+    /** The parts not yet listed, cheapest first. */
+    private PriorityQueue<Part> queue = new PriorityQueue<Part>();
+
+    /** The total cost of the matching listed last. */
+    private double lastCost;
+
+    /** A part of the matchings, with either its best matching and the potentials that prove it is the best, or a
+     *  lower bound on its cost and the matching and potentials of the part it was split from. */
+    private static class Part implements Comparable<Part> {
+
+        /** The total cost of the best matching, or a lower bound on it if the part is not solved. */
+        private double total;
+
+        /** True if the part has been solved. */
+        private boolean solved;
+
+        /** The column matched with each row in the best matching, or in the one the part was split from. */
+        private int[] rowMatch;
+
+        /** The potential of each row, as if no row were forced. */
+        private double[] rowPotential;
+
+        /** The potential of each column. */
+        private double[] colPotential;
+
+        /** The rows before this one keep their columns in every matching of the part. */
+        private int firstFree;
+
+        /** The cells, as row * size + column, that no matching of the part uses. */
+        private int[] excluded;
+
+        /** Constructor method that records a part; the arrays are used, not copied, and may be shared. */
+        Part(double total, boolean solved, int[] rowMatch, double[] rowPotential, double[] colPotential,
+             int firstFree, int[] excluded) {
+            this.total = total;
+            this.solved = solved;
+            this.rowMatch = rowMatch;
+            this.rowPotential = rowPotential;
+            this.colPotential = colPotential;
+            this.firstFree = firstFree;
+            this.excluded = excluded;
+        }
+
+        @Override
+        public int compareTo(Part other) {
+            int order = Double.compare(total, other.total);
+            if (order == 0) {
+                order = Boolean.compare(other.solved, solved);
+            }
+            return order;
+        }
+    }
+
+    /** Constructor method that starts listing the matchings of a problem the Hungarian class has already solved,
+     *  reusing its matching and potentials as the first matching listed.
+     * @param solved A solver on which solve has been called; its costs must not be negative. */
+    public KBest(Hungarian solved) {
+        rows = solved.getRows();
+        size = solved.getCols();
+        cost = new double[size * size];
+        System.arraycopy(solved.getCost(), 0, cost, 0, rows * size);
+        double max = 0;
+        for (int k = 0; k < rows * size; k++) {
+            max = Math.max(max, cost[k]);
+        }
+        excludedCost = (max + 1) * size;
+        solver = new Hungarian(cost, size, size);
+        rowCosts = new double[size];
+        int[] rowMatch = Arrays.copyOf(solved.getRowMatch(), size);
+        int[] colMatch = solved.getColMatch();
+        int padding = rows;
+        for (int j = 0; j < size; j++) {
+            if (colMatch[j] == Hungarian.NONE) {
+                rowMatch[padding] = j;
+                padding += 1;
+            }
+        }
+        queue.add(new Part(solved.getTotalCost(), true, rowMatch, Arrays.copyOf(solved.getRowPotentials(), size),
+                solved.getColPotentials().clone(), 0, new int[0]));
+    }
+
+    /** Method that finds the next best matching, and splits the rest of its part for the ones after it.
+     * @return The column matched with each row, or null if every matching has been listed. */
+    int[] next() {
+        Part part = queue.poll();
+        while (part != null && !part.solved) {
+            Part best = solve(part);
+            if (best != null) {
+                queue.add(best);
+            }
+            part = queue.poll();
+        }
+        if (part == null) {
+            return null;
+        }
+        split(part);
+        lastCost = part.total;
+        return Arrays.copyOf(part.rowMatch, rows);
+    }
+
+    /** Method that puts into the queue, with a lower bound on its cost, each part that the rest of a listed part is
+     *  split into. A matching of the part for row i costs the listed total plus the reduced costs of its cells, so
+     *  it costs at least the listed total plus the least reduced cost of row i among the columns it may still use.
+     * @param part The part whose best matching has just been listed. */
+    private void split(Part part) {
+        double[] kept = exclude(part.excluded);
+        boolean[] taken = new boolean[size];
+        for (int i = 0; i < part.firstFree; i++) {
+            taken[part.rowMatch[i]] = true;
+        }
+        for (int i = part.firstFree; i < rows; i++) {
+            int j = part.rowMatch[i];
+            taken[j] = true;
+            double least = Double.POSITIVE_INFINITY;
+            int offset = i * size;
+            for (int k = 0; k < size; k++) {
+                if (!taken[k]) {
+                    least = Math.min(least, cost[offset + k] - part.rowPotential[i] - part.colPotential[k]);
+                }
+            }
+            double bound = part.total + least;
+            if (bound < excludedCost) {
+                int[] excluded = Arrays.copyOf(part.excluded, part.excluded.length + 1);
+                excluded[part.excluded.length] = offset + j;
+                queue.add(new Part(bound, false, part.rowMatch, part.rowPotential, part.colPotential, i, excluded));
+            }
+        }
+        restore(part.excluded, kept);
+    }
+
+    /** Method that finds the best matching of a part that has not been solved, starting from the matching it was
+     *  split from, and leaves the costs as they were.
+     * @param part The part, whose row firstFree has just had its column excluded.
+     * @return The part with its best matching, or null if it has no matching. */
+    private Part solve(Part part) {
+        double[] kept = exclude(part.excluded);
+        int forced = part.firstFree;
+        double[] keptForced = new double[forced];
+        solver.setSolution(part.rowPotential, part.colPotential, part.rowMatch);
+        double[] rowPotential = solver.getRowPotentials();
+        for (int i = 0; i < forced; i++) {
+            int cell = i * size + part.rowMatch[i];
+            keptForced[i] = cost[cell];
+            cost[cell] -= excludedCost;
+            rowPotential[i] -= excludedCost;
+        }
+        System.arraycopy(cost, forced * size, rowCosts, 0, size);
+        solver.changeRow(forced, rowCosts);
+        for (int i = 0; i < forced; i++) {
+            cost[i * size + part.rowMatch[i]] = keptForced[i];
+        }
+        double total = solver.getTotalCost();
+        restore(part.excluded, kept);
+        int[] rowMatch = solver.getRowMatch();
+        for (int i = 0; i < forced; i++) {
+            if (rowMatch[i] != part.rowMatch[i]) {
+                return null;
+            }
+        }
+        if (total >= excludedCost) {
+            return null;
+        }
+        double[] potentials = rowPotential.clone();
+        for (int i = 0; i < forced; i++) {
+            potentials[i] += excludedCost;
+        }
+        return new Part(total, true, rowMatch.clone(), potentials, solver.getColPotentials().clone(), forced,
+                part.excluded);
+    }
+
+    /** Method that gives cells the excluded cost.
+     * @param cells The cells, as row * size + column.
+     * @return The costs the cells had, for restore. */
+    private double[] exclude(int[] cells) {
+        double[] kept = new double[cells.length];
+        for (int c = 0; c < cells.length; c++) {
+            kept[c] = cost[cells[c]];
+            cost[cells[c]] = excludedCost;
+        }
+        return kept;
+    }
+
+    /** Method that gives cells back the costs they had before exclude.
+     * @param cells The cells, as row * size + column.
+     * @param kept The costs returned by exclude. */
+    private void restore(int[] cells, double[] kept) {
+        for (int c = 0; c < cells.length; c++) {
+            cost[cells[c]] = kept[c];
+        }
+    }
+
+    /** @return The total cost of the matching listed last by next. */
+    double getLastCost() {
+        return lastCost;
+    }
+}
@@ -12,8 +12,8 @@ import java.util.HashMap;
  * 3/15/12
  *
  * Challenge 3: Fun-Learning Factor
- * To solve this challenge, I used the Hungarian Algorithm, implemented in matrix form. A clear
- * explanation of this algorithm is available on Wikipedia.
+ * To solve this challenge, I used the Hungarian Algorithm, in its shortest augmenting path form, which runs in
+ * O(n^3) time. A clear explanation of this algorithm is available on Wikipedia.
  * http://en.wikipedia.org/wiki/Hungarian_algorithm
  * The goal for this challenge is to maximize the FLF and the Hungarian Algorithm finds a minimum value
  * associated with assignments, so I made some alterations to the information I had to fit the algorithm. There is more
@@ -21,9 +21,18 @@ import java.util.HashMap;
  *
  * Fun-Learning Factor, Main class
  * This class reads input from the command line, calls many helper methods, and outputs results.
+ * Given the argument -grouped, it solves the challenge by grouping people with the same name statistics
+ * instead of building the full FLF matrix, which is much faster and uses much less memory for large inputs.
+ * Given the arguments -sparse K, it keeps only about K candidate partners for each person instead of building the
+ * full FLF matrix, so that very large rosters fit in memory; see the Factor class, assignSparse method.
+ * Given the arguments -best K, it also lists the K - 1 next best assignments after the best one, with the total
+ * FLF of each, how much less that is than the best, and the pairs in which it differs from the best.
+ * Given the arguments -changes FILE, it makes the best assignment and then the changes listed in FILE, people
+ * joining or leaving, repairing the assignment after each one instead of solving it again; see applyChanges.
  * Assumptions:
  * - "y" is not a vowel
- * - there are equal tutors and players
+ * - there may be more tutors than players or more players than tutors; then every person on the smaller side
+ *   is paired, and the people left over on the larger side are not printed
  * - tutor and player names will only contain letters (no dashes, numbers, etc.)
  * - individual names (tutors or players) are separated by a whitespace
  * - final assignments and total FLF will be printed to command line (this can easily be changed to output to a file)
@@ -38,40 +47,149 @@ public class Main {
         String tutorFileName = inLine.readLine();
         String playerFileName = inLine.readLine();
         inLine.close();
-        BufferedReader tutorReader = new BufferedReader(new FileReader(tutorFileName));
-        String tName;
-        while ((tName = tutorReader.readLine()) != null) {
-            group.addPerson(tName, 0);
+        try {
+            RosterLoader.load(group, tutorFileName, playerFileName);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
         }
-        BufferedReader playerReader = new BufferedReader(new FileReader(playerFileName));
-        String pName;
-        while ((pName = playerReader.readLine()) != null) {
-            group.addPerson(pName, 1);
-        }
-
-        group.computeEachFLF();
 
-        group.convertToMin();
+        int alternatives = 0;
+        if (args.length > 1 && args[0].equals("-best")) {
+            alternatives = parseCount(args, "assignment to list");
+        }
 
-        group.setMins();
+        if (args.length > 0 && args[0].equals("-grouped")) {
+            group.assignGrouped();
+        } else if (args.length > 1 && args[0].equals("-sparse")) {
+            group.assignSparse(parseCount(args, "candidate partner per person"));
+        } else {
+            group.computeEachFLF();
 
-        group.subtractMin();
+            group.convertToMin();
 
-        group.coverZeros();
+            group.assign();
+        }
 
-        group.assign();
+        if (args.length > 1 && args[0].equals("-changes")) {
+            try {
+                applyChanges(group, args[1]);
+            } catch (IOException e) {
+                System.err.println("Error: " + e.getMessage());
+                System.exit(1);
+            }
+        }
 
         ArrayList<Person> players = group.getPlayerList();
         ArrayList<Person> tutors = group.getTutorList();
-        ArrayList<ArrayList<Double>> originalMatrix = group.getOriginalMatrix();
         HashMap<Integer, Integer> pairs = group.getPairs();
-        for (int i = 0; i < group.getNumberOfPairs(); i++) {
+        for (int i = 0; i < tutors.size(); i++) {
+            if (!pairs.containsKey(i)) {
+                continue;
+            }
             int j = pairs.get(i);
             System.out.println("(" + tutors.get(i).getName() + ", " + players.get(j).getName() + ")");
-            group.incTotalFLF(originalMatrix.get(i).get(j));
+            group.incTotalFLF(MathHelpers.computeFLF(tutors.get(i), players.get(j)));
         }
         System.out.println();
         System.out.println("Total FLF: " + group.getTotalFLF());
+
+        if (alternatives > 0) {
+            printAlternatives(group, alternatives);
+        }
+    }
+
+    /** Method that reads the count given after an option, as in -sparse K, and exits with an error message if it is
+     *  not a number of at least 1.
+     * @param args The command line arguments, an option followed by its count.
+     * @param counted What the option counts, in the singular, for the error message.
+     * @return The count. */
+    static int parseCount(String[] args, String counted) {
+        int count = 0;
+        try {
+            count = Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+            System.err.println("Error: " + args[0] + " needs a number, not " + args[1]);
+            System.exit(1);
+        }
+        if (count < 1) {
+            System.err.println("Error: " + args[0] + " needs at least 1 " + counted + ", not " + count);
+            System.exit(1);
+        }
+        return count;
+    }
+
+    /** Method that makes the changes listed in a file, one per line, to the assignment: "+tutor NAME" or
+     *  "+player NAME" adds a person, and "-tutor NAME" or "-player NAME" removes the first person with that job
+     *  and name who has not left. Blank lines are skipped.
+     * @param group The Factor, on which assign has been called.
+     * @param fileName The name of the file of changes.
+     * @throws IOException If the file cannot be read, or a line is not a change or removes nobody. */
+    static void applyChanges(Factor group, String fileName) throws IOException {
+        BufferedReader in = new BufferedReader(new FileReader(fileName));
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                int space = line.indexOf(' ');
+                String change = space < 0 ? line : line.substring(0, space);
+                String name = space < 0 ? "" : line.substring(space + 1);
+                if (change.equals("+tutor")) {
+                    group.addTutor(name);
+                } else if (change.equals("+player")) {
+                    group.addPlayer(name);
+                } else if (change.equals("-tutor") || change.equals("-player")) {
+                    int job = change.equals("-tutor") ? 0 : 1;
+                    int index = group.findPerson(name, job);
+                    if (index < 0) {
+                        throw new IOException(fileName + " removes " + name + ", who is not there");
+                    }
+                    if (job == 0) {
+                        group.removeTutor(index);
+                    } else {
+                        group.removePlayer(index);
+                    }
+                } else {
+                    throw new IOException(fileName + " has a bad change: " + line);
+                }
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /** Method that prints the assignments with the next largest total FLFs after the best one, each with its total
+     *  FLF, how much less that is than the best, and the pairs in which it differs from the best.
+     * @param group The Factor, on which assign has been called.
+     * @param k The number of assignments to list, counting the best one. */
+    static void printAlternatives(Factor group, int k) {
+        ArrayList<Person> players = group.getPlayerList();
+        ArrayList<Person> tutors = group.getTutorList();
+        ArrayList<HashMap<Integer, Integer>> best = group.assignBest(k);
+        for (int r = 1; r < best.size(); r++) {
+            HashMap<Integer, Integer> assignment = best.get(r);
+            double total = 0;
+            StringBuilder changes = new StringBuilder();
+            for (int i = 0; i < tutors.size(); i++) {
+                if (!assignment.containsKey(i)) {
+                    continue;
+                }
+                int j = assignment.get(i);
+                total += MathHelpers.computeFLF(tutors.get(i), players.get(j));
+                if (!assignment.get(i).equals(best.get(0).get(i))) {
+                    if (changes.length() > 0) {
+                        changes.append(", ");
+                    }
+                    changes.append("(" + tutors.get(i).getName() + ", " + players.get(j).getName() + ")");
+                }
+            }
+            System.out.println();
+            System.out.println("Assignment " + (r + 1) + ": Total FLF " + total + " ("
+                    + (group.getTotalFLF() - total) + " less)");
+            System.out.println(changes);
+        }
     }
 
 }
@@ -1,8 +1,5 @@
 package Challenge;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-
 /**
  * @author Zack Mayeda
  * 3/15/12
@@ -11,37 +8,24 @@ import java.util.Arrays;
  */
 public class MathHelpers {
 
-    /** A variable that contains all uppercase and lowercase vowels in an array of strings. */
-    static String[] vowelArray = {"A", "a", "E", "e", "I", "i","O", "o", "U", "u"};
-    /** A variable that puts all vowels into an ArrayList. */
-    static ArrayList<String> vowels = new ArrayList<String>(Arrays.asList(vowelArray));
+    /** A variable that contains all uppercase and lowercase vowels. */
+    static final String VOWELS = "AaEeIiOoUu";
 
-    /** Method that returns the number of vowels in a string.
-    *  @param name A string that can be a player name or tutor name.
-    *  @return The number of vowels in a string as a double.
-    */
-    static double vowels(String name) {
-        double count = 0;
-         for (int i = 0; i < name.length(); i++) {
-             if (vowels.contains(name.substring(i, i+1))) {
-                 count++;
-             }
-         }
-         return count;
-    }
+    /** A lookup table that is true at the index of each character that is a vowel. Characters beyond the end of
+     *  the table are not vowels. */
+    private static final boolean[] IS_VOWEL = new boolean[128];
 
-    /** Method that returns the number of consonants in a string.
-     * @param name A string that can be a player name or tutor name.
-     * @return The number of consonants in the string as a double.
-     */
-    static double consonants(String name) {
-        double count = 0;
-        for (int i = 0; i < name.length(); i++) {
-            if (!vowels.contains(name.substring(i, i+1))) {
-                count += 1;
-            }
+    static {
+        for (int i = 0; i < VOWELS.length(); i++) {
+            IS_VOWEL[VOWELS.charAt(i)] = true;
         }
-        return count;
+    }
+
+    /** Method that returns true if a character is a vowel.
+     * @param c The character to check.
+     * @return True iff c is an uppercase or lowercase vowel. */
+    static boolean isVowel(char c) {
+        return c < IS_VOWEL.length && IS_VOWEL[c];
     }
 
     /** A number that returns the greatest common factor of two numbers.
@@ -57,21 +41,32 @@ public class MathHelpers {
     }
 
     /** Method that calls helper functions in this class to compute the FLF of a given tutor and player.
+     * It uses the name statistics each Person counted when it was created.
      * @param tutor The tutor, which is a person object.
      * @param player The player, which is a person object.
      * @return The FLF of the given tutor and player as a double. */
     static double computeFLF(Person tutor, Person player) {
-        double baseFLF, totalFLF;
-        if (tutor.getName().length() % 2 != 0) {
-             baseFLF = 1.5 * vowels(player.getName());
+        return computeFLF(tutor.getLength(), player.getVowels(), player.getConsonants(),
+                gcf(player.getLength(), tutor.getLength()) != 1);
+    }
+
+    /** Method that computes the FLF of a tutor and player from numbers already counted in their names.
+     * @param tutorLength The length of the tutor's name.
+     * @param playerVowels The number of vowels in the player's name.
+     * @param playerConsonants The number of consonants in the player's name.
+     * @param sharesFactor True iff the lengths of the two names have a common factor other than 1.
+     * @return The FLF of the tutor and player as a double. */
+    static double computeFLF(int tutorLength, double playerVowels, double playerConsonants, boolean sharesFactor) {
+        double baseFLF;
+        if (tutorLength % 2 != 0) {
+            baseFLF = 1.5 * playerVowels;
         } else {
-            baseFLF = consonants(player.getName());
+            baseFLF = playerConsonants;
         }
-        totalFLF = baseFLF;
-        if (gcf(player.getName().length(), tutor.getName().length()) != 1) {
-            totalFLF += .5 * baseFLF;
+        if (sharesFactor) {
+            return baseFLF + .5 * baseFLF;
         }
-        return totalFLF;
+        return baseFLF;
     }
 
 }
@@ -0,0 +1,60 @@
+package Challenge;
+
+/**
+ * @author Zack Mayeda
+ * 3/15/12
+ * Fun-Learning Factor, Matrix class
+ * This class represents a dense matrix of doubles, stored row-major in a single array, so that the cell at row i
+ * and column j is at index i * cols + j of the array. A 500 by 500 matrix is one array of 250,000 doubles instead
+ * of 500 lists of boxed Doubles, and loops over a row read consecutive memory.
+ */
+public class Matrix {
+
+    /** The number of rows. */
+    private int rows;
+
+    /** The number of columns. */
+    private int cols;
+
+    /** The cells, row-major. */
+    private double[] data;
+
+    /** Constructor method that creates a matrix of the given size filled with zeros.
+     * @param rows The number of rows.
+     * @param cols The number of columns. */
+    public Matrix(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        data = new double[rows * cols];
+    }
+
+    /** @param i The row index.
+     *  @param j The column index.
+     *  @return The cell at row i and column j. */
+    double get(int i, int j) {
+        return data[i * cols + j];
+    }
+
+    /** Method to change the cell at row i and column j.
+     * @param i The row index.
+     * @param j The column index.
+     * @param value The new value of the cell. */
+    void set(int i, int j, double value) {
+        data[i * cols + j] = value;
+    }
+
+    /** @return The number of rows. */
+    int getRows() {
+        return rows;
+    }
+
+    /** @return The number of columns. */
+    int getCols() {
+        return cols;
+    }
+
+    /** @return The array holding the cells, row-major. Changes to the array change the matrix. */
+    double[] getData() {
+        return data;
+    }
+}
@@ -12,10 +12,23 @@ public class Person {
     /** The name of the person, as a string. */
     private String name;
 
-    /** Person constructor method that sets name to be the given string.
+    /** The number of characters in the name. */
+    private int length;
+
+    /** The number of vowels in the name. */
+    private int vowels;
+
+    /** Person constructor method that sets name to be the given string, and counts the characters and vowels in
+     * it once, so the FLF of a pair can be computed without looking at the names again.
      * @param s The name of the person, as a string. */
     public Person(String s) {
         name = s;
+        length = s.length();
+        for (int i = 0; i < length; i++) {
+            if (MathHelpers.isVowel(s.charAt(i))) {
+                vowels++;
+            }
+        }
     }
 
     /** Getter method to retrieve name.
@@ -24,4 +37,19 @@ public class Person {
         return name;
     }
 
+    /** @return The number of characters in the name. */
+    int getLength() {
+        return length;
+    }
+
+    /** @return The number of vowels in the name. */
+    int getVowels() {
+        return vowels;
+    }
+
+    /** @return The number of consonants in the name, which is every character that is not a vowel. */
+    int getConsonants() {
+        return length - vowels;
+    }
+
 }
@@ -0,0 +1,98 @@
+package Challenge;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * @author Zack Mayeda
+ * 3/15/12
+ * Fun-Learning Factor, RosterLoader class
+ * This class reads the tutor and player files into a Factor. Each file is memory-mapped rather than read through
+ * a Reader, so the operating system pages it in directly and no intermediate buffers or line Strings are made:
+ * the bytes of each line are decoded straight into the name of its Person. Both files are mapped and their
+ * names counted before anyone is added, so the lists of people are allocated once at the right size.
+ * Lines end with "\n" or "\r\n", as BufferedReader.readLine allows, and the last line need not end with either.
+ */
+public class RosterLoader {
+
+    /** The charset that names are encoded in. */
+    static final Charset CHARSET = Charset.forName("UTF-8");
+
+    /** Method that reads the tutors and players from two files into a Factor.
+     * @param group The Factor to add the people to.
+     * @param tutorFileName The name of the file of tutors, one per line.
+     * @param playerFileName The name of the file of players, one per line.
+     * @throws IOException If a file cannot be read. */
+    static void load(Factor group, String tutorFileName, String playerFileName) throws IOException {
+        MappedByteBuffer tutorBytes = map(tutorFileName);
+        MappedByteBuffer playerBytes = map(playerFileName);
+        group.reserve(countLines(tutorBytes), countLines(playerBytes));
+        addLines(group, tutorBytes, 0);
+        addLines(group, playerBytes, 1);
+    }
+
+    /** Method that maps a whole file into memory for reading.
+     * @param fileName The name of the file.
+     * @return The contents of the file.
+     * @throws IOException If the file cannot be read or is too large to map at once. */
+    static MappedByteBuffer map(String fileName) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(fileName, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(fileName + " is too large to map");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            file.close();
+        }
+    }
+
+    /** Method that counts the lines in a file the way BufferedReader.readLine would: a "\n" ends a line, and
+     *  anything after the last "\n" is one more line.
+     * @param bytes The contents of the file.
+     * @return The number of lines. */
+    static int countLines(MappedByteBuffer bytes) {
+        int count = 0;
+        int limit = bytes.limit();
+        for (int k = 0; k < limit; k++) {
+            if (bytes.get(k) == '\n') {
+                count++;
+            }
+        }
+        if (limit > 0 && bytes.get(limit - 1) != '\n') {
+            count++;
+        }
+        return count;
+    }
+
+    /** Method that adds a person to a Factor for each line in a file, dropping the line endings.
+     * @param group The Factor to add the people to.
+     * @param bytes The contents of the file.
+     * @param job 0 if the people are tutors, 1 if they are players. */
+    static void addLines(Factor group, MappedByteBuffer bytes, int job) {
+        int limit = bytes.limit();
+        byte[] line = new byte[64];
+        int start = 0;
+        while (start < limit) {
+            int end = start;
+            while (end < limit && bytes.get(end) != '\n') {
+                end++;
+            }
+            int length = end - start;
+            if (length > 0 && bytes.get(end - 1) == '\r') {
+                length--;
+            }
+            if (length > line.length) {
+                line = new byte[Math.max(length, 2 * line.length)];
+            }
+            bytes.position(start);
+            bytes.get(line, 0, length);
+            group.addPerson(new String(line, 0, length, CHARSET), job);
+            start = end + 1;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package Challenge;
+
+import java.util.Arrays;
+
+/**
+ * @author Zack Mayeda
+ * 3/15/12
+ * Fun-Learning Factor, SparseHungarian class
+ * This class solves the assignment problem when only some rows and columns may be matched, with the same shortest
+ * augmenting path method as the Hungarian class. Each row keeps a list of the columns it may be matched with and
+ * their costs, instead of a cost for every column, so the memory used grows with the number of these edges rather
+ * than with rows * cols. Each row is added by Dijkstra's algorithm over the reduced costs of the edges, with a
+ * binary heap of columns, and the search usually stops at a free column long before it has seen every edge.
+ * Rows are added one at a time by the caller, so that a row that cannot reach a free column can be given more
+ * edges and tried again. The matching is the cheapest one that uses only the edges given, and the potentials show
+ * whether a missing edge could make it cheaper: only an edge whose reduced cost would be negative can. Rows can be
+ * released from the matching to be given such edges, and added back by one augmenting path each; with several
+ * rows released at once, each search stops at the nearest of several free columns.
+ */
+public class SparseHungarian {
+
+    /** Sentinel used by the internal arrays for "no row" or "no column". */
+    static final int NONE = -1;
+
+    /** The number of rows. */
+    private int rows;
+
+    /** The number of columns, which is at least the number of rows. */
+    private int cols;
+
+    /** The columns each row may be matched with. */
+    private int[][] edgeCol;
+
+    /** The cost of each edge, in the same order as edgeCol; costs must not be negative. */
+    private double[][] edgeCost;
+
+    /** The potential of each row. */
+    private double[] rowPotential;
+
+    /** The potential of each column. */
+    private double[] colPotential;
+
+    /** The column matched with each row, or NONE. */
+    private int[] rowMatch;
+
+    /** The row matched with each column, or NONE. */
+    private int[] colMatch;
+
+    /** For each column, the reduced cost of the cheapest path to it found so far in the current search, or
+     *  infinity if the search has not reached it. */
+    private double[] dist;
+
+    /** For each column, the column before it on the cheapest path to it in the current search,
+     *  or NONE if the path starts at the row being added. */
+    private int[] previous;
+
+    /** True for each column whose cheapest path in the current search is final. */
+    private boolean[] settled;
+
+    /** The columns the current search has reached, so that only they are reset after it. */
+    private int[] touched;
+
+    /** The number of columns in touched. */
+    private int numTouched;
+
+    /** The columns the current search has not settled yet, as a binary heap ordered by dist. */
+    private int[] heap;
+
+    /** The number of columns in the heap. */
+    private int heapSize;
+
+    /** The position of each column in the heap, or NONE. */
+    private int[] heapIndex;
+
+    /** The number of edges looked at by all the searches so far, which measures the time they took. */
+    private long work;
+
+    /** Constructor method that sets up a solver with no edges and nothing matched yet.
+     * @param rows The number of rows.
+     * @param cols The number of columns, which must be at least the number of rows. */
+    public SparseHungarian(int rows, int cols) {
+        if (rows > cols) {
+            throw new IllegalArgumentException("more rows than columns: " + rows + " > " + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        edgeCol = new int[rows][];
+        edgeCost = new double[rows][];
+        rowPotential = new double[rows];
+        colPotential = new double[cols];
+        rowMatch = new int[rows];
+        colMatch = new int[cols];
+        dist = new double[cols];
+        previous = new int[cols];
+        settled = new boolean[cols];
+        touched = new int[cols];
+        heap = new int[cols];
+        heapIndex = new int[cols];
+        Arrays.fill(rowMatch, NONE);
+        Arrays.fill(colMatch, NONE);
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(heapIndex, NONE);
+    }
+
+    /** Method that gives an unmatched row more columns it may be matched with. The row's potential is lowered, if
+     *  needed, so that none of its reduced costs is negative.
+     * @param row The row, which must not be matched.
+     * @param newCols The columns, none of which the row has already.
+     * @param newCosts The cost of matching the row with each of the columns; must not be negative. */
+    void addEdges(int row, int[] newCols, double[] newCosts) {
+        if (edgeCol[row] == null) {
+            edgeCol[row] = newCols.clone();
+            edgeCost[row] = newCosts.clone();
+        } else {
+            int old = edgeCol[row].length;
+            edgeCol[row] = Arrays.copyOf(edgeCol[row], old + newCols.length);
+            edgeCost[row] = Arrays.copyOf(edgeCost[row], old + newCosts.length);
+            System.arraycopy(newCols, 0, edgeCol[row], old, newCols.length);
+            System.arraycopy(newCosts, 0, edgeCost[row], old, newCosts.length);
+        }
+        for (int e = 0; e < newCols.length; e++) {
+            rowPotential[row] = Math.min(rowPotential[row], newCosts[e] - colPotential[newCols[e]]);
+        }
+    }
+
+    /** Method that takes a row out of the matching, freeing its column, so that it can be given more edges and
+     *  added back. When there are as many rows as columns and every row was matched before some were released,
+     *  each released row can be added back, and once all of them are the matching is the cheapest over the edges
+     *  again, whatever the order.
+     * @param row The row, which must be matched. */
+    void release(int row) {
+        colMatch[rowMatch[row]] = NONE;
+        rowMatch[row] = NONE;
+    }
+
+    /** Method that adds an unmatched row to the matching along the cheapest augmenting path over the edges,
+     *  keeping the matching optimal among the rows that are matched. If no path reaches a free column, nothing
+     *  changes.
+     * @param row The unmatched row to add.
+     * @return True if the row was matched. */
+    boolean augment(int row) {
+        int end = NONE;
+        relax(row, 0, NONE);
+        while (heapSize > 0) {
+            int j = pop();
+            settled[j] = true;
+            if (colMatch[j] == NONE) {
+                end = j;
+                break;
+            }
+            relax(colMatch[j], dist[j], j);
+        }
+        if (end != NONE) {
+            double reach = dist[end];
+            rowPotential[row] += reach;
+            for (int k = 0; k < numTouched; k++) {
+                int j = touched[k];
+                if (settled[j] && j != end) {
+                    double shift = reach - dist[j];
+                    rowPotential[colMatch[j]] += shift;
+                    colPotential[j] -= shift;
+                }
+            }
+            for (int j = end; j != NONE; ) {
+                int before = previous[j];
+                int i = before == NONE ? row : colMatch[before];
+                colMatch[j] = i;
+                rowMatch[i] = j;
+                j = before;
+            }
+        }
+        for (int k = 0; k < numTouched; k++) {
+            int j = touched[k];
+            dist[j] = Double.POSITIVE_INFINITY;
+            settled[j] = false;
+            heapIndex[j] = NONE;
+        }
+        numTouched = 0;
+        heapSize = 0;
+        return end != NONE;
+    }
+
+    /** Method that lowers the distance of each column that a row has an edge to, if the path through the row is
+     *  shorter than the one found before.
+     * @param i The row.
+     * @param base The reduced cost of the path to the row.
+     * @param from The column matched with the row, or NONE if it is the row being added. */
+    private void relax(int i, double base, int from) {
+        int[] adjacent = edgeCol[i];
+        if (adjacent == null) {
+            return;
+        }
+        double[] costs = edgeCost[i];
+        work += adjacent.length;
+        double start = base - rowPotential[i];
+        for (int e = 0; e < adjacent.length; e++) {
+            int j = adjacent[e];
+            if (settled[j]) {
+                continue;
+            }
+            double d = start + costs[e] - colPotential[j];
+            if (d < dist[j]) {
+                if (dist[j] == Double.POSITIVE_INFINITY) {
+                    touched[numTouched] = j;
+                    numTouched += 1;
+                    heapIndex[j] = heapSize;
+                    heap[heapSize] = j;
+                    heapSize += 1;
+                }
+                dist[j] = d;
+                previous[j] = from;
+                siftUp(heapIndex[j]);
+            }
+        }
+    }
+
+    /** Method that removes the column with the smallest distance from the heap.
+     * @return The column. */
+    private int pop() {
+        int top = heap[0];
+        heapIndex[top] = NONE;
+        heapSize -= 1;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapIndex[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /** Method that moves a column up the heap until its parent is no farther than it.
+     * @param k The position of the column in the heap. */
+    private void siftUp(int k) {
+        int j = heap[k];
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            if (!nearer(j, heap[parent])) {
+                break;
+            }
+            heap[k] = heap[parent];
+            heapIndex[heap[k]] = k;
+            k = parent;
+        }
+        heap[k] = j;
+        heapIndex[j] = k;
+    }
+
+    /** Method that moves a column down the heap until neither child is nearer than it.
+     * @param k The position of the column in the heap. */
+    private void siftDown(int k) {
+        int j = heap[k];
+        while (true) {
+            int child = 2 * k + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && nearer(heap[child + 1], heap[child])) {
+                child += 1;
+            }
+            if (!nearer(heap[child], j)) {
+                break;
+            }
+            heap[k] = heap[child];
+            heapIndex[heap[k]] = k;
+            k = child;
+        }
+        heap[k] = j;
+        heapIndex[j] = k;
+    }
+
+    /** Method that orders the heap: by distance, and then free columns first, so that a search that reaches a
+     *  free column stops before settling the other columns just as near.
+     * @param a A column in the heap.
+     * @param b Another column in the heap.
+     * @return True if a should be settled before b. */
+    private boolean nearer(int a, int b) {
+        return dist[a] < dist[b] || (dist[a] == dist[b] && colMatch[a] == NONE && colMatch[b] != NONE);
+    }
+
+    /** @return The number of edges looked at by all the searches so far. */
+    long getWork() {
+        return work;
+    }
+
+    /** @return The column matched with each row, or NONE for a row not yet matched. */
+    int[] getRowMatch() {
+        return rowMatch;
+    }
+
+    /** @return The row matched with each column, or NONE for an unmatched column. */
+    int[] getColMatch() {
+        return colMatch;
+    }
+
+    /** @return The potential of each row. */
+    double[] getRowPotentials() {
+        return rowPotential;
+    }
+
+    /** @return The potential of each column. */
+    double[] getColPotentials() {
+        return colPotential;
+    }
+
+    /** @return The total cost of the current matching. */
+    double getTotalCost() {
+        double total = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int e = 0; rowMatch[i] != NONE && e < edgeCol[i].length; e++) {
+                if (edgeCol[i][e] == rowMatch[i]) {
+                    total += edgeCost[i][e];
+                }
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,180 @@
+package Challenge;
+
+import java.util.Arrays;
+
+/**
+ * @author Zack Mayeda
+ * 3/15/12
+ * Fun-Learning Factor, Transportation class
+ * This class solves the transportation problem: some sources each have a supply of identical units, some sinks
+ * each demand a number of units, and moving one unit from a source to a sink has a cost. It finds how many units
+ * to move along each source-sink pair so that every supply is used, every demand is met (the totals must be
+ * equal) and the total cost is as small as possible.
+ * It uses successive shortest paths: with a potential on every node keeping all reduced costs nonnegative, it
+ * repeatedly finds the cheapest path from a source with supply left to a sink with demand left by Dijkstra's
+ * algorithm, and moves as many units along it as it can. Paths may undo earlier moves, so the result is optimal.
+ * The graph has one node per source and per sink, so the work depends on the number of sources and sinks, not on
+ * the number of units.
+ */
+public class Transportation {
+
+    /** The number of sources. */
+    private int sources;
+
+    /** The number of sinks. */
+    private int sinks;
+
+    /** The cost of moving one unit, row-major: from source a to sink b it is at index a * sinks + b. */
+    private double[] cost;
+
+    /** The supply each source has left to send. */
+    private long[] supplyLeft;
+
+    /** The demand each sink has left to meet. */
+    private long[] demandLeft;
+
+    /** The units moved from each source to each sink, row-major like cost. */
+    private long[] flow;
+
+    /** The potential of each node: the sources, then the sinks, then the super-source, then the super-sink. */
+    private double[] potential;
+
+    /** Constructor method that sets up a problem with nothing moved yet.
+     * @param supply The number of units at each source.
+     * @param demand The number of units each sink needs. The total must equal the total supply.
+     * @param cost The cost of moving one unit, row-major with one row per source; must not be negative. */
+    public Transportation(long[] supply, long[] demand, double[] cost) {
+        sources = supply.length;
+        sinks = demand.length;
+        if (cost.length != sources * sinks) {
+            throw new IllegalArgumentException("cost matrix should have " + sources * sinks + " cells");
+        }
+        long total = 0;
+        for (long s : supply) {
+            total += s;
+        }
+        for (long d : demand) {
+            total -= d;
+        }
+        if (total != 0) {
+            throw new IllegalArgumentException("total supply and total demand differ by " + total);
+        }
+        this.cost = cost;
+        supplyLeft = supply.clone();
+        demandLeft = demand.clone();
+        flow = new long[sources * sinks];
+        potential = new double[sources + sinks + 2];
+    }
+
+    /** Method that moves all units as cheaply as possible.
+     * @return The units moved from each source to each sink, row-major with one row per source. */
+    long[] solve() {
+        int nodes = sources + sinks + 2;
+        int source = sources + sinks;
+        int sink = source + 1;
+        double[] dist = new double[nodes];
+        int[] parent = new int[nodes];
+        boolean[] done = new boolean[nodes];
+        while (true) {
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            Arrays.fill(done, false);
+            dist[source] = 0;
+            parent[source] = -1;
+            while (true) {
+                int x = -1;
+                for (int y = 0; y < nodes; y++) {
+                    if (!done[y] && dist[y] < Double.POSITIVE_INFINITY && (x == -1 || dist[y] < dist[x])) {
+                        x = y;
+                    }
+                }
+                if (x == -1 || x == sink) {
+                    break;
+                }
+                done[x] = true;
+                if (x == source) {
+                    for (int a = 0; a < sources; a++) {
+                        if (supplyLeft[a] > 0) {
+                            relax(x, a, 0, dist, parent);
+                        }
+                    }
+                } else if (x < sources) {
+                    for (int b = 0; b < sinks; b++) {
+                        relax(x, sources + b, cost[x * sinks + b], dist, parent);
+                    }
+                } else {
+                    int b = x - sources;
+                    for (int a = 0; a < sources; a++) {
+                        if (flow[a * sinks + b] > 0) {
+                            relax(x, a, -cost[a * sinks + b], dist, parent);
+                        }
+                    }
+                    if (demandLeft[b] > 0) {
+                        relax(x, sink, 0, dist, parent);
+                    }
+                }
+            }
+            if (dist[sink] == Double.POSITIVE_INFINITY) {
+                return flow;
+            }
+            for (int x = 0; x < nodes; x++) {
+                potential[x] += Math.min(dist[x], dist[sink]);
+            }
+            augment(parent, source, sink);
+        }
+    }
+
+    /** Method that lowers the distance of node y if the arc from the settled node x gives a shorter path.
+     * @param x The node the arc leaves.
+     * @param y The node the arc enters.
+     * @param arcCost The cost of the arc, before the potentials are applied.
+     * @param dist The distance of each node found so far.
+     * @param parent The node before each node on the shortest path found so far. */
+    private void relax(int x, int y, double arcCost, double[] dist, int[] parent) {
+        double d = dist[x] + arcCost + potential[x] - potential[y];
+        if (d < dist[y]) {
+            dist[y] = d;
+            parent[y] = x;
+        }
+    }
+
+    /** Method that moves as many units as possible along the path from the super-source to the super-sink given
+     *  by parent, which is limited by the supply and demand left at its ends and by the units already moved along
+     *  each sink-to-source arc it takes back.
+     * @param parent The node before each node on the path.
+     * @param source The super-source.
+     * @param sink The super-sink. */
+    private void augment(int[] parent, int source, int sink) {
+        long amount = Long.MAX_VALUE;
+        for (int y = sink; y != source; y = parent[y]) {
+            int x = parent[y];
+            if (x == source) {
+                amount = Math.min(amount, supplyLeft[y]);
+            } else if (y == sink) {
+                amount = Math.min(amount, demandLeft[x - sources]);
+            } else if (x >= sources) {
+                amount = Math.min(amount, flow[y * sinks + x - sources]);
+            }
+        }
+        for (int y = sink; y != source; y = parent[y]) {
+            int x = parent[y];
+            if (x == source) {
+                supplyLeft[y] -= amount;
+            } else if (y == sink) {
+                demandLeft[x - sources] -= amount;
+            } else if (x < sources) {
+                flow[x * sinks + y - sources] += amount;
+            } else {
+                flow[y * sinks + x - sources] -= amount;
+            }
+        }
+    }
+
+    /** @return The total cost of the units moved so far. */
+    double getTotalCost() {
+        double total = 0;
+        for (int k = 0; k < flow.length; k++) {
+            total += flow[k] * cost[k];
+        }
+        return total;
+    }
+}
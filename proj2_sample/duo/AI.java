@@ -1,7 +1,6 @@
 package duo;
 
 import static duo.Color.*;
-import java.util.ArrayList;
 
 /** Abstract class of all players.
  * @author Zack Mayeda
@@ -14,19 +13,19 @@ class AI extends Player {
         super(name, ui);
     }
 
-    /** The integer 15. */
-    private static final int MAXNUM = 18;
-
-    /** The overriden move method, which generates a move and sends
-     *  it to move in game.
+    /** The overriden move method, which generates a move, from my
+     *  opening book if it has one, and sends it to move in game.
      */
     @Override
     void move() {
-        if (_game.getNumMoves() == 0 || _game.getNumMoves() == 1) {
+        int book = bookMove();
+        if (book != Move.NONE) {
+            _game.move(book);
+        } else if (_game.getNumMoves() == 0 || _game.getNumMoves() == 1) {
             _game.move(playCorner());
         } else {
-            String aMove = minMove();
-            if (aMove.length() < 4) {
+            int aMove = minMove();
+            if (aMove == Move.NONE) {
                 _game.move(getRandMove());
             } else {
                 _game.move(aMove);
@@ -37,84 +36,78 @@ class AI extends Player {
     /** The integer 14. */
     private static final int FOURTEEN = 14;
 
-    /** The integer 13. */
-    private static final int THIRTEEN = 13;
+    /** The integer 11, the column or row of the lower-left corner of
+     *  the W piece when it fills a corner on the far side of the
+     *  board. */
+    private static final int FAR_CORNER = 11;
+
+    /** The number of the W piece. */
+    private static final int PIECE_W = Pieces.getPieceNum("W");
+
+    /** The number of the L piece. */
+    private static final int PIECE_L = Pieces.getPieceNum("L");
 
-    /** Give the instructions, in PCRD form, to play the W piece
-     *  first, in one of the corners of the board.
+    /** Return the move that plays the W piece first, in one of the
+     *  corners of the board, for use when my opening book has no move.
      *  @return The move that starts in a corner, if first turn. */
-    public String playCorner() {
+    public int playCorner() {
         Board b = _game.getBoard();
-        if (b.isLegal("W000")) {
-            return "W000";
-        } else {
-            if (b.isLegal("W0b1")) {
-                return "W0b1";
-            } else {
-                if (b.isLegal("Wbb0")) {
-                    return "Wbb0";
-                } else {
-                    if (b.isLegal("Wb01")) {
-                        return "Wb01";
-                    }
-                }
+        int[] corners = {
+            Move.make(PIECE_W, 0, 0, 0),
+            Move.make(PIECE_W, 0, FAR_CORNER, 1),
+            Move.make(PIECE_W, FAR_CORNER, FAR_CORNER, 0),
+            Move.make(PIECE_W, FAR_CORNER, 0, 1)
+        };
+        for (int corner : corners) {
+            if (b.isLegal(corner)) {
+                return corner;
             }
         }
-        return "L000";
+        return Move.make(PIECE_L, 0, 0, 0);
     }
 
     /** Find the move that places a piece on the board as close to
      *  the center of the board as possible.
-     *  @return The move, in PCRD form, that is closest to center
-     *  of board. */
-    public String minMove() {
-        Color myColor = getColor();
-        ArrayList<String> possibleMoves = new ArrayList<String>();
-        possibleMoves = null;
-        ArrayList<String> piecesLeft = _game.getPieceList(myColor);
-        for (int count = piecesLeft.size() - 1; count >= 0; count--) {
-            ArrayList<String> allMoves = getAllMoves(piecesLeft.get(count));
-            if (!allMoves.isEmpty()) {
-                possibleMoves = allMoves;
-                break;
+     *  @return The move that is closest to center of board, or
+     *  Move.NONE if there is none. */
+    public int minMove() {
+        MoveList possibleMoves = new MoveList();
+        int piecesLeft = _game.getPieceSet(getColor());
+        for (int piece = Pieces.NUM_PIECES - 1; piece >= 0; piece--) {
+            if ((piecesLeft & (1 << piece)) != 0) {
+                getAllMoves(piece, possibleMoves);
+                if (!possibleMoves.isEmpty()) {
+                    break;
+                }
             }
         }
         return findMin(possibleMoves);
     }
 
-    /** Given one piece, create an arraylist of all possible moves on
-     *  the current board using only that piece.
-     *  @param piece The name of the piece.
-     *  @return The arrayList of all possible moves using the given
-     *  piece. */
-    public ArrayList<String> getAllMoves(String piece) {
-        ArrayList<String> tempMoves = new ArrayList<String>();
-        for (int col = 0; col < FOURTEEN; col++) {
-            for (int row = 0; row < FOURTEEN; row++) {
-                for (int orient = 0; orient < 8; orient++) {
-                    String testmove = buildAMove(piece, col, row, orient);
-                    if (_game.getBoard().isWellFormed(testmove)) {
-                        if (_game.getBoard().isLegal(testmove)) {
-                            tempMoves.add(testmove);
-                        }
-                    }
-                }
-            }
-        }
-        return tempMoves;
+    /** Given one piece, add all possible moves on the current board
+     *  using only that piece to MOVES.
+     *  @param piece The number of the piece.
+     *  @param moves The list to which the moves are added. */
+    public void getAllMoves(int piece, MoveList moves) {
+        _game.getBoard().legalMoves(Board.playerNum(getColor()), 1 << piece,
+                                    moves);
     }
 
-    /** Given an arrayList of moves, return the move that puts a
-     *  piece closest to the center of the board.
-     *  @param moveList The arraylist of possible moves.
-     *  @return The move closest to the center. */
-    public String findMin(ArrayList<String> moveList) {
-        String bestMove = " ";
+    /** Given a list of moves, return the move that puts a
+     *  piece closest to the center of the board.  Of equally close
+     *  moves, return the one with the smallest column, then row, then
+     *  orientation number.
+     *  @param moveList The list of possible moves of one piece.
+     *  @return The move closest to the center, or Move.NONE if
+     *  MOVELIST is empty. */
+    public int findMin(MoveList moveList) {
+        int bestMove = Move.NONE;
         int bestVal = FOURTEEN;
         for (int count = 0; count < moveList.size(); count++) {
-            String currentMove = moveList.get(count);
+            int currentMove = moveList.get(count);
             int tempVal = findDistance(currentMove);
-            if (tempVal < bestVal) {
+            if (tempVal < bestVal
+                || (tempVal == bestVal && currentMove < bestMove)) {
                 bestMove = currentMove;
                 bestVal = tempVal;
             } else {
@@ -130,15 +123,12 @@ class AI extends Player {
      *  @return The sum of the vertical and horizontal distances to
      *  the center of the board.
      */
-    public int findDistance(String move) {
-        Board b = getGame().getBoard();
-        int col = b.getCol(move);
-        int row = b.getRow(move);
-        int orient = b.getOrient(move);
-        String pieceName = b.getPieceMove(move);
-        int[][] piece = b.orient(pieceName, orient);
-        int width = piece[0].length;
-        int height = piece.length;
+    public int findDistance(int move) {
+        int col = Move.getCol(move);
+        int row = Move.getRow(move);
+        Orientation piece = Move.getOrientation(move);
+        int width = piece.getWidth();
+        int height = piece.getHeight();
         if (col + width <= 7 && row + height <= 7) {
             return (7 - col) + (7 - row);
         } else {
@@ -157,94 +147,26 @@ class AI extends Player {
         return 7;
     }
 
-    /** Generate any legal move. This searches through every possible
-     *  piece, orientation, column number, and row number and returns
-     *  the first legal move it finds. It checks if there are legal
-     *  moves using larger pieces first.
-     *  @return A legal move. */
-    public String getRandMove() {
-        Color color = getColor();
-        for (int col = 0; col < FOURTEEN; col++) {
-            for (int row = 0; row < FOURTEEN; row++) {
-                for (int index = _game.getPieceList(color).size() - 1;
-                     index >= 0; index--) {
-                    String piece = _game.getPieceList(color).get(index);
-                    for (int orient = 0; orient < 8; orient++) {
-                        String testmove = buildAMove(piece, col, row, orient);
-                        if (_game.getBoard().isWellFormed(testmove)) {
-                            if (_game.getBoard().isLegal(testmove)) {
-                                return testmove;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return null;
-
-    }
-
-    /** The integer 10. */
-    private static final int TN = 10;
-
-    /** The integer 11. */
-    private static final int ELEV = 11;
-
-    /** The integer 12. */
-    private static final int TWEL = 12;
-
-    /** The integer 13. */
-    private static final int THIRT = 13;
-
-    /** Return the move, using correct move syntax, for the given
-     *  piece, column, number, row number, and orientation.
-     *  @param piece The piece to put in the move.
-     *  @param col The column number to put in the move.
-     *  @param row The row number to put in the move.
-     *  @param orient The orientation number to put in the move.
-     */
-    public static String buildAMove(String piece, int col,
-                                      int row, int orient) {
-        String colStr = toAlpha(col);
-        String rowStr = toAlpha(row);
-        String orientStr = Integer.toString(orient);
-        String finalPiece = piece;
-        if (piece.equals("one")) {
-            finalPiece = "1";
-        }
-        if (piece.equals("two")) {
-            finalPiece = "2";
+    /** Generate any legal move, using the largest piece that has one.
+     *  Of its moves, return the one with the smallest column, then row,
+     *  then orientation number, as findMin does, so that the choice
+     *  does not depend on the order in which moves are generated.
+     *  @return A legal move, or Move.NONE if there is none. */
+    public int getRandMove() {
+        MoveList moves = new MoveList();
+        int pieces = _game.getPieceSet(getColor());
+        while (pieces != 0 && moves.isEmpty()) {
+            int piece = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(pieces);
+            getAllMoves(piece, moves);
+            pieces &= ~(1 << piece);
         }
-        if (piece.equals("three")) {
-            finalPiece = "3";
-        }
-        String finalMove = (finalPiece + colStr + rowStr + orientStr);
-        return finalMove;
-    }
-
-    /** Takes a string as argument and changes two digit numbers in the
-     *  string into letters.
-     *  @param rawNum The number from 0 - 13 that will be changed to
-     *  a number from 0 - 9 and a - d.
-     *  @return The hexadecimal version of the argument. */
-    public static String toAlpha(int rawNum) {
-        if (rawNum == TN) {
-            return "a";
-        } else {
-            if (rawNum == ELEV) {
-                return "b";
-            } else {
-                if (rawNum == TWEL) {
-                    return "c";
-                } else {
-                    if (rawNum == THIRT) {
-                        return "d";
-                    } else {
-                        return Integer.toString(rawNum);
-                    }
-                }
+        int best = Move.NONE;
+        for (int k = 0; k < moves.size(); k++) {
+            if (best == Move.NONE || moves.get(k) < best) {
+                best = moves.get(k);
             }
         }
+        return best;
     }
 
 }
@@ -0,0 +1,253 @@
+package duo;
+
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+import static duo.Color.*;
+
+/** Micro-benchmarks of the hot paths of the duo engine, run on saved
+ *  positions.  Each argument names a file of moves in PCRD form, like
+ *  an initial-move file of Main; the position after those moves is
+ *  benchmarked.  For each operation, this warms up, then times several
+ *  iterations and reports the mean and spread of the time per operation
+ *  and the bytes allocated per operation.  An operation whose name ends
+ *  in "[all]" is a call for every piece, orientation, square or legal
+ *  move that applies to it in the position.
+ *      java duo.Bench bench/early.txt bench/mid.txt bench/late.txt
+ *  @author Zack Mayeda
+ */
+public final class Bench {
+
+    /** The time to spend warming up each benchmark, in nanoseconds. */
+    private static final long WARMUP_NANOS = 1000000000L;
+
+    /** The time below which a batch of calls between readings of the
+     *  clock is made larger, in nanoseconds. */
+    private static final long BATCH_NANOS = 1000000L;
+
+    /** The number of timed iterations of each benchmark. */
+    private static final int ITERATIONS = 5;
+
+    /** The time to spend on each timed iteration, in nanoseconds. */
+    private static final long ITERATION_NANOS = 200000000L;
+
+    /** Nothing to construct. */
+    private Bench() {
+    }
+
+    /** One benchmarked operation. */
+    private abstract static class Case {
+
+        /** An operation named NAME. */
+        Case(String name) {
+            _name = name;
+        }
+
+        /** Perform the operation once and return a result that depends
+         *  on all of its work, so that it cannot be optimized away. */
+        abstract long run();
+
+        /** Return my name. */
+        String getName() {
+            return _name;
+        }
+
+        /** My name. */
+        private final String _name;
+    }
+
+    /** Run the benchmarks on the positions in the files named by ARGS. */
+    public static void main(String... args) {
+        if (args.length == 0) {
+            System.err.println("usage: java duo.Bench POSITION-FILE...");
+            System.exit(1);
+        }
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean)
+            ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+        System.out.printf("%-10s %-28s %12s %10s %10s%n", "position",
+                          "benchmark", "ns/op", "+-ns/op", "B/op");
+        for (String file : args) {
+            for (Case c : cases(file)) {
+                measure(file, c, threads);
+            }
+        }
+    }
+
+    /** Return the benchmarks for the position reached by the moves in the
+     *  file named FILE. */
+    private static List<Case> cases(String file) {
+        UI ui = new QuietUI();
+        AI orange = new AI("@bench", ui);
+        AI violet = new AI("@bench", ui);
+        final Game game = new Game(orange, violet, ui, 1);
+        try {
+            Scanner s = new Scanner(new FileReader(file));
+            while (s.hasNext()) {
+                game.move(s.next());
+            }
+        } catch (FileNotFoundException e) {
+            System.err.println("cannot open " + file);
+            System.exit(1);
+        }
+        final Board board = game.getBoard();
+        final int player = board.playerOnNum();
+        final Color color = board.playerOnMove();
+        final AI ai = player == 0 ? orange : violet;
+        ai.startGame(game, color);
+        final int pieces = board.getPieces(player);
+        final MutableBoard mutable = new MutableBoard(board);
+        final MoveList legal = new MoveList();
+        board.legalMoves(player, pieces, legal);
+        final MoveList moves = new MoveList();
+
+        List<Case> result = new ArrayList<Case>();
+        result.add(new Case("Board.isLegal[all]") {
+            @Override
+            long run() {
+                long n = 0;
+                for (int p = 0; p < Pieces.NUM_PIECES; p++) {
+                    for (Orientation o : Pieces.getOrientations(p)) {
+                        for (int r = 0; r < Board.SIZE; r++) {
+                            for (int c = 0; c < Board.SIZE; c++) {
+                                int m = Move.make(p, c, r,
+                                                  o.getOrientNum());
+                                if (board.isLegal(m)) {
+                                    n += 1;
+                                }
+                            }
+                        }
+                    }
+                }
+                return n;
+            }
+        });
+        result.add(new Case("Pieces.getOrientation[all]") {
+            @Override
+            long run() {
+                long n = 0;
+                for (int p = 0; p < Pieces.NUM_PIECES; p++) {
+                    for (int d = 0; d < Pieces.NUM_ORIENTS; d++) {
+                        n += Pieces.getOrientation(p, d).getWidth();
+                    }
+                }
+                return n;
+            }
+        });
+        result.add(new Case("AI.getAllMoves[all]") {
+            @Override
+            long run() {
+                long n = 0;
+                for (int p = 0; p < Pieces.NUM_PIECES; p++) {
+                    if ((pieces & (1 << p)) != 0) {
+                        moves.clear();
+                        ai.getAllMoves(p, moves);
+                        n += moves.size();
+                    }
+                }
+                return n;
+            }
+        });
+        result.add(new Case("Game.hasMove") {
+            @Override
+            long run() {
+                return game.hasMove(color) ? 1 : 0;
+            }
+        });
+        result.add(new Case("Game.getScore") {
+            @Override
+            long run() {
+                return game.getScore(ORANGE) + game.getScore(VIOLET);
+            }
+        });
+        final Playout uniform = new Playout(new Random(1), Playout.UNIFORM);
+        result.add(new Case("Playout.play[uniform]") {
+            @Override
+            long run() {
+                uniform.setPosition(board);
+                return uniform.play();
+            }
+        });
+        final Playout largest =
+            new Playout(new Random(1), Playout.LARGEST_FIRST);
+        result.add(new Case("Playout.play[largest]") {
+            @Override
+            long run() {
+                largest.setPosition(board);
+                return largest.play();
+            }
+        });
+        result.add(new Case("MutableBoard.makeMove[all]") {
+            @Override
+            long run() {
+                long n = 0;
+                for (int k = 0; k < legal.size(); k++) {
+                    mutable.makeMove(legal.get(k));
+                    n += mutable.getHash();
+                    mutable.unmakeMove();
+                }
+                return n;
+            }
+        });
+        return result;
+    }
+
+    /** Warm up and time C, which works on the position from FILE, and
+     *  print the results, measuring allocation with THREADS. */
+    private static void measure(String file, Case c,
+                                com.sun.management.ThreadMXBean threads) {
+        long id = Thread.currentThread().getId();
+        long end = System.nanoTime() + WARMUP_NANOS;
+        long batch = 1;
+        for (long now = System.nanoTime(); now < end; ) {
+            for (long i = 0; i < batch; i++) {
+                _sink += c.run();
+            }
+            long last = now;
+            now = System.nanoTime();
+            if (now - last < BATCH_NANOS) {
+                batch *= 2;
+            }
+        }
+        double[] nanosPerOp = new double[ITERATIONS];
+        long ops = 0;
+        long bytes = -threads.getThreadAllocatedBytes(id);
+        for (int it = 0; it < ITERATIONS; it++) {
+            long start = System.nanoTime();
+            long stop = start + ITERATION_NANOS;
+            long n = 0;
+            long now;
+            do {
+                for (long i = 0; i < batch; i++) {
+                    _sink += c.run();
+                }
+                n += batch;
+                now = System.nanoTime();
+            } while (now < stop);
+            nanosPerOp[it] = (double) (now - start) / n;
+            ops += n;
+        }
+        bytes += threads.getThreadAllocatedBytes(id);
+        double mean = 0;
+        for (double t : nanosPerOp) {
+            mean += t / ITERATIONS;
+        }
+        double spread = 0;
+        for (double t : nanosPerOp) {
+            spread = Math.max(spread, Math.abs(t - mean));
+        }
+        String name = file.substring(file.lastIndexOf('/') + 1);
+        System.out.printf("%-10s %-28s %12.1f %10.1f %10.2f%n", name,
+                          c.getName(), mean, spread, (double) bytes / ops);
+    }
+
+    /** Accumulates benchmark results so they are not optimized away. */
+    private static long _sink;
+
+}
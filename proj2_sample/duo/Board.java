@@ -2,7 +2,6 @@ package duo;
 
 import static duo.Color.*;
 
-import java.util.HashMap;
 import java.util.regex.Pattern;
 
 /** Represents a Blokus Duo(tm) game board.
@@ -19,60 +18,152 @@ class Board {
         return SIZE;
     }
 
-    /** This variable contains the game board, which is an array of
-     * array of colors.
-     */
-    private Color[][] gameBoard;
+    /** Bit mask with one bit set for every column of a row. */
+    static final int FULL_ROW = (1 << SIZE) - 1;
 
-    /** Accessor for the game board.
-     * @return the gameBoard which is an array of array of colors.
-     */
-    public Color[][] getBoard() {
-        return gameBoard;
-    }
+    /** The total number of squares in a player's full set of pieces. */
+    static final int ALL_SQUARES = Pieces.countSquares(Pieces.ALL_PIECES);
+
+    /** Bit mask of the two corner squares of the top and bottom rows. */
+    private static final int END_SQUARES = 1 | (1 << (SIZE - 1));
+
+    /** Squares occupied by each player.  Bit C of _occupied[P][R] is set
+     *  iff player P (0 for orange, 1 for violet) has a piece in column C
+     *  of row R, so each player's pieces form one 196-bit set. */
+    private final int[][] _occupied = new int[2][SIZE];
+
+    /** Squares on which each player may not place a piece because they
+     *  hold or share a side with one of that player's pieces. */
+    private final int[][] _forbidden = new int[2][SIZE];
+
+    /** Empty squares through which each player may attach a new piece:
+     *  those diagonal to one of its pieces and not forbidden to it.
+     *  Before a player's first piece these are the corners of the
+     *  board. */
+    private final int[][] _corners = new int[2][SIZE];
+
+    /** The pieces each player has left, as sets of piece numbers in
+     *  which bit P is set iff piece P has not been played. */
+    private final int[] _pieces = new int[2];
+
+    /** The number of squares covered by each player's pieces, kept up
+     *  to date as moves are made so that scores take constant time. */
+    private final int[] _squares = new int[2];
+
+    /** The total number of squares in the pieces each player has left. */
+    private final int[] _pieceSquares = new int[2];
+
+    /** The last move made by each player, in the packed form of Move,
+     *  or Move.NONE if it has not moved. */
+    private final int[] _lastMove = new int[2];
+
+    /** The number of moves that have been made (VIOLET and ORANGE). */
+    private int _moveCount;
+
+    /** The Zobrist hash of this position (see Zobrist). */
+    private long _hash = Zobrist.INITIAL;
 
     /** A new, empty Immutable board. */
     Board() {
-        Color[][] emptyBoard = new Color[SIZE][SIZE];
-        for (int c = 0; c < SIZE; c++) {
-            for (int r = 0; r < SIZE; r++) {
-                emptyBoard[r][c] = EMPTY;
-            }
+        for (int p = 0; p < 2; p++) {
+            _corners[p][0] = END_SQUARES;
+            _corners[p][SIZE - 1] = END_SQUARES;
+            _pieces[p] = Pieces.ALL_PIECES;
+            _pieceSquares[p] = ALL_SQUARES;
+            _lastMove[p] = Move.NONE;
         }
-        gameBoard = emptyBoard;
     }
 
-    /** Takes a game board (array of colors) as an argument
-     *  and sets it to be the current gameBoard.
-     *  @param newBoard is an array of arrays of colors
-     *  that will become the new gameBoard.
-     */
-    public void setGameBoard(Color[][] newBoard) {
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                gameBoard[row][col] = newBoard[row][col];
-            }
+    /** A new board whose contents are copied from BOARD. */
+    Board(Board board) {
+        for (int p = 0; p < 2; p++) {
+            System.arraycopy(board._occupied[p], 0, _occupied[p], 0, SIZE);
+            System.arraycopy(board._forbidden[p], 0, _forbidden[p], 0, SIZE);
+            System.arraycopy(board._corners[p], 0, _corners[p], 0, SIZE);
+            _pieces[p] = board._pieces[p];
+            _squares[p] = board._squares[p];
+            _pieceSquares[p] = board._pieceSquares[p];
+            _lastMove[p] = board._lastMove[p];
         }
+        _moveCount = board._moveCount;
+        _hash = board._hash;
+    }
+
+    /** Return the Zobrist hash of this position, which depends only on
+     *  the squares each player holds, the pieces each player has left,
+     *  which players have earned the monomino bonus and who is on move.
+     *  Positions with equal hashes have equal scores and equal futures,
+     *  but not necessarily equal last moves. */
+    long getHash() {
+        return _hash;
+    }
+
+    /** Return the number of moves that have been made (VIOLET and
+     *  ORANGE). */
+    int getNumMoves() {
+        return _moveCount;
+    }
+
+    /** Return the pieces player PLAYER has left, as a set of piece
+     *  numbers in which bit P is set iff piece P has not been played. */
+    int getPieces(int player) {
+        return _pieces[player];
+    }
+
+    /** Return the last move made by player PLAYER, in the packed form of
+     *  Move, or Move.NONE if it has not moved. */
+    int getLastMove(int player) {
+        return _lastMove[player];
+    }
+
+    /** Return the squares of row ROW held by player PLAYER, as a bit
+     *  mask in which bit C is set for column C. */
+    int getOccupied(int player, int row) {
+        return _occupied[player][row];
+    }
+
+    /** Return the squares of row ROW that share a side with, or hold,
+     *  a piece of player PLAYER, as a bit mask like getOccupied. */
+    int getForbidden(int player, int row) {
+        return _forbidden[player][row];
+    }
+
+    /** Return the corner squares of player PLAYER in row ROW, as a bit
+     *  mask like getOccupied. */
+    int getCorners(int player, int row) {
+        return _corners[player][row];
     }
 
     /** Return the current contents of the square in column COL and row ROW.
      * @param col is the number of the column of the square to retrieve.
      * @param row is the number of the row of the square to retrieve.
-     * @return the color that is the contents of the square.
+     * @return the color that is the contents of the square, or null if
+     * the square is off the board.
      */
     Color get(int col, int row) {
-        try {
-            return gameBoard[row][col];
-        } catch (ArrayIndexOutOfBoundsException n) {
+        if (col < 0 || col >= SIZE || row < 0 || row >= SIZE) {
             return null;
         }
+        int bit = 1 << col;
+        if ((_occupied[0][row] & bit) != 0) {
+            return ORANGE;
+        } else if ((_occupied[1][row] & bit) != 0) {
+            return VIOLET;
+        }
+        return EMPTY;
+    }
+
+    /** Return the number (0 for orange, 1 for violet) of the player
+     *  playing COLOR. */
+    static int playerNum(Color color) {
+        return color == ORANGE ? 0 : 1;
     }
 
     /** Return the color of player whose turn it is.
      * @return the color of the player whose turn it is (orange or violet).
      */
     Color playerOnMove() {
-        if (Game.getNumMoves() % 2 == 0) {
+        if (_moveCount % 2 == 0) {
             return ORANGE;
         } else {
             return VIOLET;
@@ -81,7 +172,7 @@ class Board {
 
     /** Return the number of the player whose turn it is. */
     int playerOnNum() {
-        if (Game.getNumMoves() % 2 == 0) {
+        if (_moveCount % 2 == 0) {
             return 0;
         } else {
             return 1;
@@ -101,6 +192,46 @@ class Board {
         }
         return EMPTY;
     }
+    /** The score of each player when both have placed all their pieces
+     *  and both placed the monomino last. */
+    static final int WIN = 94;
+
+    /** The bonus for placing all of one's pieces, the monomino last. */
+    static final int MONOMINO_BONUS = 5;
+
+    /** Returns the score of player PLAYER on this board: the number of
+     *  squares it covers, plus a bonus if it has placed all its pieces
+     *  and the last of them was the monomino. */
+    int getScore(int player) {
+        if (placedMonominoLast(0) && placedMonominoLast(1)) {
+            return WIN;
+        }
+        int score = getSquares(player);
+        if (placedMonominoLast(player)) {
+            score += MONOMINO_BONUS;
+        }
+        return score;
+    }
+
+    /** Return the number of squares covered by the pieces of player
+     *  PLAYER. */
+    int getSquares(int player) {
+        return _squares[player];
+    }
+
+    /** Return the total number of squares in the pieces player PLAYER
+     *  has left. */
+    int getPieceSquares(int player) {
+        return _pieceSquares[player];
+    }
+
+    /** Return true iff player PLAYER has placed all its pieces, the last
+     *  of them the monomino. */
+    boolean placedMonominoLast(int player) {
+        return _pieces[player] == 0 && _lastMove[player] != Move.NONE
+            && Move.getPiece(_lastMove[player]) == 0;
+    }
+
     /** Returns true iff MOVE is a syntactically correct move.
      *  @param move The move of the form PCRD (piece, column, row, rotation),
      *  that is input by the player.
@@ -115,461 +246,275 @@ class Board {
         }
     }
 
-    /** Rotate the piece to the provided orientation by checking to make
-     *  sure that is the smallest orientation number that returns
-     *  the same shape, and then calling orientHelper of the piece
-     *  to retrieve the rotated piece.
-     * @param pieceName The single character name of the piece that you
-     * want to rotate
-     * @param orient The number of the orientation desired.
-     * @return the array of array of ints that represents the rotated piece as
-     * 1's and 0's, where 1's are colored and 0's are empty.
-     */
-    public int[][] orient(String pieceName, int orient) {
-        int min = 0;
-        min = orient;
-        for (int numTest = orient - 1; numTest >= 0; numTest--) {
-            if (orientHelper(pieceName, orient)
-                == orientHelper(pieceName, numTest)) {
-                min = numTest;
-            }
-        }
-        return orientHelper(pieceName, min);
+    /** Returns true iff MOVE, a move in the packed form of Move, is
+     *  currently legal for the player on move. */
+    boolean isLegal(int move) {
+        Orientation piece = Move.getOrientation(move);
+        return isLegal(playerOnNum(), piece.getRows(), piece.getWidth(),
+                       Move.getCol(move), Move.getRow(move));
     }
 
-    /** This does the actual rotation of pieces, with no checking of
-     *  smallest orientation number.
-     * @param piece The single character name of the piece that we
-     *  want to rotate.
-     * @param orientNum The number of the orientation desired.
-     * @return the rotated piece in the form of an array of array of
-     *  0's and 1's.
-     */
-    public int[][] orientHelper(String piece, int orientNum) {
-        int[][] pieceArray = Pieces.getPiece(piece);
-        int[][] orientedPiece = orient0(pieceArray);
-        switch(orientNum) {
-        case 0:
-            orientedPiece = orient0(pieceArray);
-            break;
-        case 1:
-            orientedPiece = orient1(pieceArray);
-            break;
-        case 2:
-            orientedPiece =  orient2(pieceArray);
-            break;
-        case 3:
-            orientedPiece =  orient3(pieceArray);
-            break;
-        case 4:
-            orientedPiece =  orient4(pieceArray);
-            break;
-        case 5:
-            orientedPiece =  orient5(pieceArray);
-            break;
-        case 6:
-            orientedPiece =  orient6(pieceArray);
-            break;
-        case 7:
-            orientedPiece = orient7(pieceArray);
-            break;
-        default:
-            break;
+    /** Returns true iff player PLAYER may place the piece whose rows,
+     *  from the bottom up, are the bit masks ROWS and which is WIDTH
+     *  squares wide, with its lower-left corner at column COL and row
+     *  ROW.  The piece must lie on the board, cover only squares that are
+     *  neither occupied nor forbidden to PLAYER, and cover at least one
+     *  of PLAYER's corner squares. */
+    boolean isLegal(int player, int[] rows, int width, int col, int row) {
+        int height = rows.length;
+        if (col + width > SIZE || row + height > SIZE) {
+            return false;
         }
-        return orientedPiece;
-    }
-
-    /** Change the orientation of the piece to 0.
-     * @param piece A piece in array of array of int form. In this form,
-     * 0's represent empty, and 1's represent a colored space.
-     * @return The same piece in array of array of ints form,
-     * not rotated because this is orientation 0.
-     */
-    public int[][] orient0(int[][] piece) {
-        return piece;
-    }
-
-    /** Change the orientation of the piece to 1.
-     * @param piece A piece in array of array of int form.
-     * @return The piece in array of array of int form,
-     * rotated to orientation 1.
-     */
-    public int[][] orient1(int[][] piece) {
-        return rotateRight(piece);
-    }
-
-    /** Change the orientation of the piece to 2.
-     * @param piece A piece in array of array of int form.
-     * @return The piece in array of array of int form,
-     * rotated to orientation 2.
-     */
-    public int[][] orient2(int[][] piece) {
-        return horizFlip(vertFlip(piece));
-    }
-
-    /** Change the orientation of the piece to 3.
-      * @param piece A piece in array of array of int form.
-      * @return The piece in array of array of int form,
-      * rotated to orientation 3.
-      */
-    public int[][] orient3(int[][] piece) {
-        return vertFlip(horizFlip(rotateRight(piece)));
-    }
-
-    /** Change the orientation of the piece to 4.
-      * @param piece A piece in array of array of int form.
-      * @return The piece in array of array of int form,
-      * rotated to orientation 4.
-      */
-    public int[][] orient4(int[][] piece) {
-        return horizFlip(piece);
-    }
-
-    /** Change the orientation of the piece to 5.
-      * @param piece A piece in array of array of int form.
-      * @return The piece in array of array of int form,
-      * rotated to orientation 5.
-      */
-    public int[][] orient5(int[][] piece) {
-        return horizFlip(rotateRight(piece));
-    }
-
-    /** Change the orientation of the piece to 6.
-      * @param piece A piece in array of array of int form.
-      * @return The piece in array of array of int form,
-      * rotated to orientation 6.
-      */
-    public int[][] orient6(int[][] piece) {
-        return vertFlip(piece);
-    }
-
-    /** Change the orientation of the piece to 7.
-      * @param piece A piece in array of array of int form.
-      * @return The piece in array of array of int form,
-      * rotated to orientation 7.
-      */
-    public int[][] orient7(int[][] piece) {
-        return vertFlip(rotateRight(piece));
-    }
-
-    /** Flip a piece horizontally.
-      * @param piece A piece in array of array of int form.
-      * @return The piece in array of array of int form,
-      * flipped horizontally.
-      */
-    public int[][] horizFlip(int[][] piece) {
-        int height = piece.length;
-        int width = piece[0].length;
-        int[][] newPiece = new int[height][width];
-        for (int row = 0; row < height; row++) {
-            int[] newRow = new int[width];
-            for (int col = 0; col < width; col++) {
-                newRow[col] = piece[row][width - col - 1];
+        int[] forbidden = _forbidden[player];
+        int[] corners = _corners[player];
+        int[] orange = _occupied[0];
+        int[] violet = _occupied[1];
+        int touch = 0;
+        for (int i = 0, r = row; i < height; i++, r++) {
+            int mask = rows[i] << col;
+            if ((mask & (forbidden[r] | orange[r] | violet[r])) != 0) {
+                return false;
             }
-            newPiece[row] = newRow;
+            touch |= mask & corners[r];
         }
-        return newPiece;
-    }
-
-    /** Flip a shape vertically.
-     * @param piece A piece in array of array of int form.
-     * @return The piece in array of array of int form,
-     *  vertically flipped. */
-    public int[][] vertFlip(int[][] piece) {
-        int height = piece.length;
-        int width = piece[0].length;
-        int[][] newPiece = new int[height][width];
-        for (int row = 0; row < height; row++) {
-            newPiece[row] = piece[height - row - 1];
+        return touch != 0;
+    }
+
+    /** Add to MOVES every legal move of player PLAYER that uses one of
+     *  the pieces in PIECES, a set of piece numbers in which bit P is
+     *  set iff piece P may be used, and return the number of such moves.
+     *  If MOVES is null, just count them.  The columns at which an
+     *  oriented piece may be placed in a given row are found all at
+     *  once: shifting the rows of PLAYER's corner squares, and of the
+     *  squares it may not cover, right by the column of each cell of the
+     *  piece, and ORing the results, gives the masks of the columns at
+     *  which the piece would touch a corner square and at which it
+     *  would cover a square it may not.  Only rows within a piece's
+     *  height of a corner square are tried. */
+    int legalMoves(int player, int pieces, MoveList moves) {
+        int cornerRows = cornerRows(player);
+        if (cornerRows == 0) {
+            return 0;
         }
-        return newPiece;
-    }
-
-    /** Rotate a piece clockwise by 90 degrees.
-     * @param piece A piece in array of array of int form.
-     * @return The piece in array of array of int form, rotated
-     *  clockwise 90 degrees.
-     */
-    public int[][] rotateRight(int[][] piece) {
-        int height = piece.length;
-        int width = piece[0].length;
-        int[][] rotPiece = new int[width][height];
-        for (int h = height - 1, count = 0; h >= 0; h--, count++) {
-            for (int w = 0; w < width; w++) {
-                rotPiece[w][count] = piece[h][w];
+        int lowest = Integer.numberOfTrailingZeros(cornerRows);
+        int highest =
+            Integer.SIZE - 1 - Integer.numberOfLeadingZeros(cornerRows);
+        int count = 0;
+        for (int p = pieces; p != 0; p &= p - 1) {
+            int piece = Integer.numberOfTrailingZeros(p);
+            for (Orientation o : Pieces.getOrientations(piece)) {
+                int height = o.getHeight();
+                int heightMask = (1 << height) - 1;
+                int last = Math.min(SIZE - height, highest);
+                for (int r = Math.max(0, lowest - height + 1); r <= last;
+                     r++) {
+                    if (((cornerRows >>> r) & heightMask) == 0) {
+                        continue;
+                    }
+                    int cols = placements(player, o, r);
+                    count += Integer.bitCount(cols);
+                    for (; moves != null && cols != 0; cols &= cols - 1) {
+                        int c = Integer.numberOfTrailingZeros(cols);
+                        moves.add(Move.make(piece, c, r, o.getOrientNum()));
+                    }
+                }
             }
         }
-        return rotPiece;
+        return count;
     }
 
-    /** Get the piece name from a move.
-     * @param move The move in PCRD form.
-     * @return The single character representation of a piece from the
-     * given move.
-     */
-    public String getPieceMove(String move) {
-        return getPieceName(move.substring(0, 1));
+    /** Return the number of corner squares of player PLAYER, the empty
+     *  squares through which it can still attach pieces. */
+    int countCorners(int player) {
+        int count = 0;
+        for (int mask : _corners[player]) {
+            count += Integer.bitCount(mask);
+        }
+        return count;
     }
 
-    /** Return the name of the piece. If given a number 1, 2, or 3. This
-     *  will return one, two, and three. This just handles the special
-     *  cases and passes on the rest.
-     *  @param rawName is the name of the piece, taken from the move.
-     */
-    public String getPieceName(String rawName) {
-        if (rawName.equals("1")) {
-            return "one";
-        } else {
-            if (rawName.equals("2")) {
-                return "two";
-            } else {
-                if (rawName.equals("3")) {
-                    return "three";
-                } else {
-                    return rawName;
-                }
+    /** Return the set of rows in which player PLAYER has corner
+     *  squares, in which bit R is set iff row R has one. */
+    private int cornerRows(int player) {
+        int[] corners = _corners[player];
+        int rows = 0;
+        for (int r = 0; r < SIZE; r++) {
+            if (corners[r] != 0) {
+                rows |= 1 << r;
             }
         }
-    }
-
-    /** Get the column number from a move.
-     * @param move The move in PCRD form.
-     * @return The number of the column of the position from the given move.
-     */
-    public int getCol(String move) {
-        return getBoardNum(move.substring(1, 2));
-    }
-
-    /** Get the row number from a move.
-     * @param move The move in PCRD form.
-     * @return The number of the row of the position from the given move.
-     */
-    public int getRow(String move) {
-        return getBoardNum(move.substring(2, 3));
-    }
-
-
-    /** Get the orientation number from a move.
-     * @param move The move in PCRD form.
-     * @return The orientation number from the given move.
-     */
-    public int getOrient(String move) {
-        return Integer.parseInt(move.substring(3, 4));
-    }
-
-    /** Given a string that represents the column or row number,
-     *  returns the number of the column or row. For rows and columns
-     *  greater than 9, "a" represents 10, "b" represents 11,
-     *  "c" represents 12, and "d" represents 13.
-     * @param numMove The column or row number in string form.
-     * @return The number of the column or row.
-     */
-    public int getBoardNum(String numMove) {
-        if (Pattern.matches("[0-9]", numMove)) {
-            return Integer.parseInt(numMove);
-        } else {
-            return boardNums.get(numMove);
+        return rows;
+    }
+
+    /** Return the columns at which player PLAYER may place the oriented
+     *  piece PIECE with its lower-left corner in row ROW, as a bit mask
+     *  in which bit C is set iff the piece fits with its lower-left
+     *  corner in column C.  The piece must not stick out of the top of
+     *  the board. */
+    private int placements(int player, Orientation piece, int row) {
+        int[] cellCols = piece.getCellCols();
+        int[] cellRows = piece.getCellRows();
+        int[] forbidden = _forbidden[player];
+        int[] corners = _corners[player];
+        int touch = 0;
+        int clash = 0;
+        for (int k = 0; k < cellCols.length; k++) {
+            int r = row + cellRows[k];
+            touch |= corners[r] >>> cellCols[k];
+            clash |= (forbidden[r] | _occupied[0][r] | _occupied[1][r])
+                >>> cellCols[k];
         }
+        return touch & ~clash & ((1 << (SIZE - piece.getWidth() + 1)) - 1);
     }
 
-    /** The integer ten. */
-    private static final int TEN = 10;
-
-    /** The integer eleven. */
-    private static final int ELEVEN = 11;
-
-    /** The integer twelve. */
-    private static final int TWELVE = 12;
-
-    /** The integer thirteen. */
-    private static final int THIRTEEN = 13;
-
-    /** Hashmap to lookup values for a, b, c, and d for column
-     *  and row number. */
-    private static HashMap<String, Integer> boardNums =
-        new HashMap<String, Integer>();
-
-    static {
-        boardNums.put("a", TEN);
-        boardNums.put("b", ELEVEN);
-        boardNums.put("c", TWELVE);
-        boardNums.put("d", THIRTEEN);
-    }
-
-    /** Returns true iff MOVE is currently legal. It returns true after
-     *  the finding one legal move. It checks to see if you can make any
-     *  legal move using any piece, any col, any row, any orientation.
-     * @param move The move in PCRD form. */
-    boolean isLegal(String move) {
-        String thePiece = getPieceMove(move);
-        int[][] pieceArray = Pieces.getPiece(thePiece);
-        int col = getCol(move);
-        int row = getRow(move);
-        int orient = getOrient(move);
-        int[][] orientedPiece = orient(thePiece, orient);
-        if (emptySpaceCheck(orientedPiece, col, row)) {
-            if (onBoardCheck(orientedPiece, col, row)) {
-                if (touchCornerCheck(orientedPiece, col, row)) {
-                    if (noTouchSameCheck(orientedPiece, col, row)) {
-                        if (startCornerCheck(move)) {
-                            return true;
-
+    /** Return true iff player PLAYER has a legal move using one of the
+     *  pieces in PIECES, a set of piece numbers as for legalMoves. */
+    boolean hasLegalMove(int player, int pieces) {
+        int[] corners = _corners[player];
+        for (int row = 0; row < SIZE; row++) {
+            for (int bits = corners[row]; bits != 0; bits &= bits - 1) {
+                int col = Integer.numberOfTrailingZeros(bits);
+                for (int p = pieces; p != 0; p &= p - 1) {
+                    int piece = Integer.numberOfTrailingZeros(p);
+                    for (Orientation o : Pieces.getOrientations(piece)) {
+                        int[] cellCols = o.getCellCols();
+                        int[] cellRows = o.getCellRows();
+                        for (int k = 0; k < cellCols.length; k++) {
+                            if (anchored(player, o, col - cellCols[k],
+                                         row - cellRows[k], col, row)) {
+                                return true;
+                            }
                         }
                     }
-
                 }
             }
         }
         return false;
     }
 
-    /** Check if board has empty spaces where you want to place the piece.
-     * @param piece The piece in array of array of int form.
-     * @param col The number of desired column position.
-     * @param row The number of desired row position.
-     * @return True if the board has empty spaces where you want
-     *  to put the piece.
-     */
-    public boolean emptySpaceCheck(int[][] piece, int col, int row) {
-        int height = piece.length;
-        int width = piece[0].length;
-        for (int h = height - 1, r = row; h >= 0; h--, r++) {
-            for (int w = 0, c = col; w < width; w++, c++) {
-                if (piece[h][w] == 1) {
-                    if (get(r, c) == EMPTY || get(r, c) == null) {
-                        continue;
-                    } else {
-                        return false;
-                    }
-                }
-            }
+    /** Return true iff player PLAYER may place PIECE with its lower-left
+     *  corner at column COL and row ROW, given that this covers PLAYER's
+     *  corner square at column CORNERCOL and row CORNERROW, and that no
+     *  corner square of PLAYER before that one (in order of row, then
+     *  column) is covered. */
+    private boolean anchored(int player, Orientation piece, int col, int row,
+                             int cornerCol, int cornerRow) {
+        int[] rows = piece.getRows();
+        int height = rows.length;
+        if (col < 0 || row < 0
+            || col + piece.getWidth() > SIZE || row + height > SIZE) {
+            return false;
         }
-        return true;
-    }
-
-    /** Check if the piece you want to place touches the corner of at
-     *  least one other piece of the same color.
-     * @param piece The piece in array of array of int form.
-     * @param col The number of the column of desired position.
-     * @param row The number of the row of desired position.
-     * @return True if the piece will touch at least on corner of a piece of the
-     * same color.
-     */
-    public boolean touchCornerCheck(int[][] piece, int col, int row) {
-        int height = piece.length;
-        int width = piece[0].length;
-        Color pColor = playerOnMove();
-        if (Game.getNumMoves() > 1) {
-            for (int h = height - 1, r = row; h >= 0; h--, r++) {
-                for (int w = 0, c = col; w < width; w++, c++) {
-                    if (piece[h][w] == 1) {
-                        if (get(r - 1, c - 1) == pColor
-                            || get(r - 1, c + 1) == pColor
-                            || get(r + 1, c - 1) == pColor
-                            || get(r + 1, c + 1) == pColor) {
-                            return true;
-                        }
-                    }
-                }
+        int[] forbidden = _forbidden[player];
+        int[] corners = _corners[player];
+        int[] orange = _occupied[0];
+        int[] violet = _occupied[1];
+        int earlier = (1 << cornerCol) - 1;
+        for (int i = 0, r = row; i < height; i++, r++) {
+            int mask = rows[i] << col;
+            if ((mask & (forbidden[r] | orange[r] | violet[r])) != 0) {
+                return false;
+            }
+            if ((r < cornerRow && (mask & corners[r]) != 0)
+                || (r == cornerRow && (mask & corners[r] & earlier) != 0)) {
+                return false;
             }
-            return false;
         }
         return true;
     }
 
-    /** Check if a piece will touch another piece of the same color
-      * on the side, top, or bottom of any block of the piece.
-     * @param piece The piece in array of array of int form.
-     * @param col The number of the column of desired position.
-     * @param row The number of the row of the desired position.
-     * @return True if the piece doesn't touch a piece of the same color on
-     * its side, top, or bottom.
-     */
-    public boolean noTouchSameCheck(int[][] piece, int col, int row) {
-        int height = piece.length;
-        int width = piece[0].length;
-        for (int h = height - 1, r = row; h >= 0; h--, r++) {
-            for (int w = 0, c = col; w < width; w++, c++) {
-                if (piece[h][w] == 1) {
-                    if (get(r - 1, c) == playerOnMove()
-                        || get(r + 1, c) == playerOnMove()
-                        || get(r, c - 1) == playerOnMove()
-                        || get(r, c + 1) == playerOnMove()) {
-                        return false;
-                    }
-                }
-            }
+    /** Make MOVE, in the packed form of Move, for the player on move
+     *  without checking legality: place its piece, take the piece from
+     *  the player's set and its squares from the player's remaining
+     *  total to its covered total, record the move as the player's last
+     *  and pass the turn.  Only MutableBoard changes a board this way. */
+    void play(int move) {
+        int player = playerOnNum();
+        int size = Move.getOrientation(move).size();
+        _pieces[player] &= ~(1 << Move.getPiece(move));
+        _squares[player] += size;
+        _pieceSquares[player] -= size;
+        toggle(player, move);
+        _lastMove[player] = move;
+        _moveCount += 1;
+        _hash ^= Zobrist.move(player, move);
+        if (placedMonominoLast(player)) {
+            _hash ^= Zobrist.bonus(player);
         }
-        return true;
     }
 
-    /** The integer fourteen. */
-    private static final int FORTEEN = 14;
-
-    /** Check if the piece is completely on the board (no parts of the
-     *  piece go off of the board.
-     * @param piece The piece in array of array of int form.
-     * @param col The number of the column of desired position.
-     * @param row The number of the row of desired position.
-     * @return True if the piece will be completely on the board.
-     */
-    public boolean onBoardCheck(int[][] piece, int col, int row) {
-        int height = piece.length;
-        int width = piece[0].length;
-        if (row + height  > FORTEEN) {
-            return false;
+    /** Take back MOVE, in the packed form of Move, which must be the
+     *  last move made on this board, restoring PREVLAST as the last move
+     *  of the player who made it.  Only MutableBoard changes a board this
+     *  way. */
+    void unplay(int move, int prevLast) {
+        _moveCount -= 1;
+        int player = playerOnNum();
+        if (placedMonominoLast(player)) {
+            _hash ^= Zobrist.bonus(player);
         }
-
-        if (col + width > FORTEEN) {
-            return false;
+        int size = Move.getOrientation(move).size();
+        _pieces[player] |= 1 << Move.getPiece(move);
+        _squares[player] -= size;
+        _pieceSquares[player] += size;
+        toggle(player, move);
+        _lastMove[player] = prevLast;
+        _hash ^= Zobrist.move(player, move);
+    }
+
+    /** Flip the squares of player PLAYER covered by the piece MOVE
+     *  places, which puts the piece on the board or takes it off, and
+     *  bring the forbidden and corner squares of both players up to
+     *  date in the rows the piece covers or borders.  PLAYER's set of
+     *  pieces must already include MOVE's piece if it is being taken
+     *  off, and exclude it if it is being put on.  When that piece is
+     *  PLAYER's only one on the board, the board's corner squares also
+     *  open or close to PLAYER. */
+    private void toggle(int player, int move) {
+        int[] rows = Move.getOrientation(move).getRows();
+        int col = Move.getCol(move);
+        int row = Move.getRow(move);
+        int top = row + rows.length;
+        for (int i = 0; i < rows.length; i++) {
+            _occupied[player][row + i] ^= rows[i] << col;
         }
-        return true;
-    }
-
-    /** Check if the first move for a player puts a piece in a corner.
-     * @param move The move in PCRD form.
-     * @return True if the move is not the first move for a player,
-     *  or if it is the first play and puts a piece in a corner
-     *  of the board.
-     */
-    public boolean startCornerCheck(String move) {
-        int col = getCol(move);
-        int row = getRow(move);
-        int orient = getOrient(move);
-        String piece = getPieceMove(move);
-        int[][] rotatedPiece = orient(piece, orient);
-        int width = rotatedPiece[0].length;
-        int height = rotatedPiece.length;
-        if (Game.getNumMoves() == 0
-            || Game.getNumMoves() == 1) {
-            if (col == 0
-                && row == 0) {
-                if (rotatedPiece[height - 1][0] == 1) {
-                    return true;
-                }
-            }
-            if (col == 0
-                && row + height - 1 == THIRTEEN) {
-                if (rotatedPiece[0][0] == 1) {
-                    return true;
-                }
+        for (int r = Math.max(0, row - 1); r <= Math.min(SIZE - 1, top);
+             r++) {
+            refresh(r);
+        }
+        if (Integer.bitCount(_pieces[player]) >= Pieces.NUM_PIECES - 1) {
+            if (row > 1) {
+                refresh(0);
             }
-            if (col + width - 1 == THIRTEEN
-                && row == 0) {
-                if (rotatedPiece[height - 1][width - 1] == 1) {
-                    return true;
-                }
+            if (top < SIZE - 1) {
+                refresh(SIZE - 1);
             }
-            if (col + width - 1 == THIRTEEN
-                && row + height - 1 == THIRTEEN) {
-                if (rotatedPiece[0][width - 1] == 1) {
-                    return true;
-                }
+        }
+    }
+
+    /** Recompute the forbidden and corner squares of both players in
+     *  row ROW from the occupied squares of rows ROW - 1 to ROW + 1. */
+    private void refresh(int row) {
+        int taken = _occupied[0][row] | _occupied[1][row];
+        for (int p = 0; p < 2; p++) {
+            int[] occupied = _occupied[p];
+            int here = occupied[row];
+            int vertical = (row > 0 ? occupied[row - 1] : 0)
+                | (row < SIZE - 1 ? occupied[row + 1] : 0);
+            int forbidden =
+                (here | (here << 1) | (here >>> 1) | vertical) & FULL_ROW;
+            int diagonal = ((vertical << 1) | (vertical >>> 1)) & FULL_ROW;
+            if ((row == 0 || row == SIZE - 1) && !hasPieces(p)) {
+                diagonal |= END_SQUARES;
             }
-            return false;
-        } else {
-            return true;
+            _forbidden[p][row] = forbidden;
+            _corners[p][row] = diagonal & ~forbidden & ~taken;
         }
     }
 
+    /** Return true iff player PLAYER has a piece on the board. */
+    private boolean hasPieces(int player) {
+        return _pieces[player] != Pieces.ALL_PIECES;
+    }
+
 }
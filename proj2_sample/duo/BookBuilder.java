@@ -0,0 +1,204 @@
+package duo;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/** Builds an OpeningBook offline from the statistics of self-play games
+ *  between two searching players.  In each game, every move is the best
+ *  found by a search of the given number of milliseconds, except one
+ *  move, at a random ply within the book, which is a random legal move
+ *  of the largest piece size left, so that games spread over many
+ *  openings.  Each searched move within the book is credited to its
+ *  position with 2 points if its player won the game, 1 for a tie and 0
+ *  for a loss, and the book holds every move with a positive total,
+ *  weighted by it.  Positions and moves are recorded in the canonical
+ *  form of OpeningBook, so games that differ by a rotation or
+ *  reflection add up.
+ *      java duo.BookBuilder duo.book 200 6 1000
+ *  @author Zack Mayeda
+ */
+public final class BookBuilder {
+
+    /** The points a move gets for a win by its player. */
+    private static final int WIN_POINTS = 2;
+
+    /** The points a move gets for a tie. */
+    private static final int TIE_POINTS = 1;
+
+    /** A builder of a book covering the first PLIES plies, from games
+     *  whose players search for BUDGETMILLIS milliseconds a move and
+     *  whose random moves come from a Random seeded with SEED. */
+    private BookBuilder(int plies, long budgetMillis, long seed) {
+        _plies = plies;
+        _rand = new Random(seed);
+        UI ui = new QuietUI();
+        for (int p = 0; p < 2; p++) {
+            _players[p] = (SearchAI) Main.makePlayer("@ab:" + budgetMillis,
+                                                     ui);
+        }
+    }
+
+    /** Build and write a book.  ARGS are FILE GAMES PLIES BUDGET
+     *  [ SEED ]: the book is written to FILE from GAMES games, covers the
+     *  first PLIES plies, and its players search for BUDGET milliseconds
+     *  a move. */
+    public static void main(String... args) {
+        if (args.length < 4 || args.length > 5) {
+            System.err.println("usage: java duo.BookBuilder FILE GAMES"
+                               + " PLIES BUDGET [ SEED ]");
+            System.exit(1);
+        }
+        int games = 0, plies = 0;
+        long budget = 0, seed = 0;
+        try {
+            games = Integer.parseInt(args[1]);
+            plies = Integer.parseInt(args[2]);
+            budget = Long.parseLong(args[3]);
+            if (args.length > 4) {
+                seed = Long.parseLong(args[4]);
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("error: bad number");
+            System.exit(1);
+        }
+        if (games < 0 || plies < 1 || budget < 0) {
+            System.err.println("error: GAMES and BUDGET may not be negative,"
+                               + " and PLIES must be at least 1");
+            System.exit(1);
+        }
+        BookBuilder builder = new BookBuilder(plies, budget, seed);
+        for (int g = 0; g < games; g++) {
+            int margin = builder.playGame();
+            System.out.printf("game %d: orange margin %d%n", g + 1, margin);
+        }
+        try {
+            int size = builder.write(args[0]);
+            System.out.printf("%d positions, %d moves written to %s%n",
+                              builder._weights.size(), size, args[0]);
+        } catch (IOException e) {
+            System.err.println("error: cannot write " + args[0]);
+            System.exit(1);
+        }
+    }
+
+    /** Play one game, add its moves within the book to my statistics and
+     *  return its final margin for orange. */
+    private int playGame() {
+        MutableBoard board = new MutableBoard();
+        MoveList moves = new MoveList();
+        int randomPly = _rand.nextInt(_plies);
+        int n = 0;
+        while (true) {
+            int player = board.playerOnNum();
+            int move;
+            if (board.getNumMoves() == randomPly) {
+                move = randomLargest(board, moves);
+            } else {
+                move = _players[player].findMove(board);
+            }
+            if (move == Move.NONE) {
+                break;
+            }
+            if (board.getNumMoves() < _plies
+                && board.getNumMoves() != randomPly) {
+                int symmetry = OpeningBook.canonicalSymmetry(board);
+                _gameHashes[n] = OpeningBook.hash(board, symmetry);
+                _gameMoves[n] = OpeningBook.transformMove(symmetry, move);
+                _gamePlayers[n] = player;
+                n += 1;
+            }
+            board.makeMove(move);
+        }
+        int margin = board.getScore(0) - board.getScore(1);
+        for (int k = 0; k < n; k++) {
+            int mine = _gamePlayers[k] == 0 ? margin : -margin;
+            int points = mine > 0 ? WIN_POINTS : mine == 0 ? TIE_POINTS : 0;
+            Map<Integer, Integer> position = _weights.get(_gameHashes[k]);
+            if (position == null) {
+                position = new TreeMap<Integer, Integer>();
+                _weights.put(_gameHashes[k], position);
+            }
+            Integer total = position.get(_gameMoves[k]);
+            position.put(_gameMoves[k], (total == null ? 0 : total) + points);
+        }
+        return margin;
+    }
+
+    /** Return a random legal move of the largest piece size that any
+     *  legal move has for the player on move in BOARD, or Move.NONE if
+     *  there is none, using MOVES to collect them. */
+    private int randomLargest(Board board, MoveList moves) {
+        int player = board.playerOnNum();
+        moves.clear();
+        board.legalMoves(player, board.getPieces(player), moves);
+        if (moves.isEmpty()) {
+            return Move.NONE;
+        }
+        int largest = 0, count = 0;
+        for (int k = 0; k < moves.size(); k++) {
+            largest = Math.max(largest,
+                               Move.getOrientation(moves.get(k)).size());
+        }
+        for (int k = 0; k < moves.size(); k++) {
+            if (Move.getOrientation(moves.get(k)).size() == largest) {
+                moves.moveToFront(k);
+                count += 1;
+            }
+        }
+        return moves.get(_rand.nextInt(count));
+    }
+
+    /** Write the moves with positive weight to a book in the file named
+     *  FILENAME and return how many there are.  Throws IOException if
+     *  the file cannot be written. */
+    private int write(String fileName) throws IOException {
+        TreeMap<Long, Map<Integer, Integer>> sorted =
+            new TreeMap<Long, Map<Integer, Integer>>(_weights);
+        int size = 0;
+        for (Map<Integer, Integer> position : sorted.values()) {
+            for (int weight : position.values()) {
+                size += weight > 0 ? 1 : 0;
+            }
+        }
+        long[] hashes = new long[size];
+        int[] moves = new int[size];
+        int[] weights = new int[size];
+        int k = 0;
+        for (Map.Entry<Long, Map<Integer, Integer>> position
+                 : sorted.entrySet()) {
+            for (Map.Entry<Integer, Integer> entry
+                     : position.getValue().entrySet()) {
+                if (entry.getValue() > 0) {
+                    hashes[k] = position.getKey();
+                    moves[k] = entry.getKey();
+                    weights[k] = entry.getValue();
+                    k += 1;
+                }
+            }
+        }
+        OpeningBook.write(fileName, _plies, hashes, moves, weights);
+        return size;
+    }
+
+    /** The number of plies from the start my book covers. */
+    private final int _plies;
+    /** The source of my random moves. */
+    private final Random _rand;
+    /** The searching player of each color. */
+    private final SearchAI[] _players = new SearchAI[2];
+    /** The total points of each move, by canonical hash of position and
+     *  then canonical move. */
+    private final Map<Long, Map<Integer, Integer>> _weights =
+        new HashMap<Long, Map<Integer, Integer>>();
+    /** The canonical hashes of the positions within my book in the
+     *  current game. */
+    private final long[] _gameHashes = new long[MutableBoard.MAX_MOVES];
+    /** The canonical moves made from those positions. */
+    private final int[] _gameMoves = new int[MutableBoard.MAX_MOVES];
+    /** The players who made those moves. */
+    private final int[] _gamePlayers = new int[MutableBoard.MAX_MOVES];
+
+}
@@ -0,0 +1,225 @@
+package duo;
+
+import java.util.Random;
+
+/** A check of EndgameSolver against plain minimax, which searches every
+ *  line to the end of the game without a transposition table or any
+ *  cutoffs.  Each position is made by putting pieces down at random
+ *  squares, regardless of the rules of attachment, until each player
+ *  has two pieces left, orange's being the monomino and a small piece.
+ *  Orange may then end with either piece on the same squares, a
+ *  transposition that only the monomino bonus tells apart.  The
+ *  position and those two plies later are solved in turn, and for each
+ *  the solver's value must equal the minimax value and its move must
+ *  achieve it.  The check reports how many positions let orange play
+ *  both of its pieces, and exits with status 1 if any solve fails.
+ *      java duo.EndgameCheck 500 1
+ *  @author Zack Mayeda
+ */
+public final class EndgameCheck {
+
+    /** The largest piece number orange may keep besides the monomino. */
+    private static final int ORANGE_KEEPS = 3;
+
+    /** The largest piece number violet may keep. */
+    private static final int VIOLET_KEEPS = 8;
+
+    /** The number of random placements tried for each piece before a
+     *  position is abandoned. */
+    private static final int TRIES = 2000;
+
+    /** The time the solver may take on each position, in nanoseconds. */
+    private static final long SOLVE_NANOS = 10000000000L;
+
+    /** Nothing to construct. */
+    private EndgameCheck() {
+    }
+
+    /** Check the solver on positions made at random.  ARGS are
+     *  POSITIONS [ SEED ]: the number of positions to check, and the
+     *  seed of the random positions. */
+    public static void main(String... args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("usage: java duo.EndgameCheck POSITIONS"
+                               + " [ SEED ]");
+            System.exit(1);
+        }
+        int positions = 0;
+        long seed = 0;
+        try {
+            positions = Integer.parseInt(args[0]);
+            if (args.length > 1) {
+                seed = Long.parseLong(args[1]);
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("error: bad number");
+            System.exit(1);
+        }
+        Random rand = new Random(seed);
+        EndgameSolver solver = new EndgameSolver(SearchAI.SOLVER_TABLE_BITS);
+        int checked = 0, bothPieces = 0, failures = 0;
+        while (checked < positions) {
+            MutableBoard board = randomPosition(rand);
+            if (board == null || !board.hasLegalMove(0, board.getPieces(0))) {
+                continue;
+            }
+            checked += 1;
+            if (playsBoth(board)) {
+                bothPieces += 1;
+            }
+            failures += checkLines(solver, board);
+        }
+        System.out.printf("%d positions, %d in which orange can play both"
+                          + " pieces, %d failed solves%n", checked, bothPieces,
+                          failures);
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    /** Return the number of positions SOLVER gets wrong among BOARD,
+     *  with orange on move, and each position after a move by orange
+     *  and a reply by violet.  Solving them in turn with one table is
+     *  what a game does, so a value stored for one order of orange's
+     *  pieces is found again in the other. */
+    private static int checkLines(EndgameSolver solver, MutableBoard board) {
+        if (!check(solver, board)) {
+            return 1;
+        }
+        int failures = 0;
+        MoveList moves = new MoveList();
+        board.legalMoves(0, board.getPieces(0), moves);
+        for (int k = 0; k < moves.size(); k++) {
+            board.makeMove(moves.get(k));
+            MoveList replies = new MoveList();
+            board.legalMoves(1, board.getPieces(1), replies);
+            for (int j = 0; j < replies.size(); j++) {
+                board.makeMove(replies.get(j));
+                if (!check(solver, board)) {
+                    failures += 1;
+                }
+                board.unmakeMove();
+            }
+            board.unmakeMove();
+        }
+        return failures;
+    }
+
+    /** Return true iff SOLVER finds the minimax value of BOARD and a
+     *  move that achieves it, reporting the position if not.  SOLVER
+     *  keeps its table from the positions solved before. */
+    private static boolean check(EndgameSolver solver, MutableBoard board) {
+        int expected = minimax(board);
+        if (!solver.solve(board, System.nanoTime() + SOLVE_NANOS)) {
+            System.out.println("solver timed out");
+            return false;
+        }
+        int value = solver.getValue();
+        int achieved = expected;
+        if (solver.getBestMove() != Move.NONE) {
+            board.makeMove(solver.getBestMove());
+            achieved = -minimax(board);
+            board.unmakeMove();
+        }
+        if (value != expected || achieved != expected) {
+            System.out.printf("%s to move: minimax %d, solver %d, solver's"
+                              + " move %d%n", board.playerOnMove(), expected,
+                              value, achieved);
+            return false;
+        }
+        return true;
+    }
+
+    /** Return a board on which each player has put down all but two of
+     *  its pieces at random, orange on move, using RAND, or null if the
+     *  pieces did not fit. */
+    private static MutableBoard randomPosition(Random rand) {
+        int[] keep = {
+            1 | (1 << (1 + rand.nextInt(ORANGE_KEEPS))),
+            0
+        };
+        while (Integer.bitCount(keep[1]) < 2) {
+            keep[1] |= 1 << rand.nextInt(VIOLET_KEEPS + 1);
+        }
+        MutableBoard board = new MutableBoard();
+        while (board.getPieces(1) != keep[1]) {
+            int player = board.playerOnNum();
+            int left = board.getPieces(player) & ~keep[player];
+            int piece = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(left);
+            int move = randomFit(board, piece, rand);
+            if (move == Move.NONE) {
+                return null;
+            }
+            board.makeMove(move);
+        }
+        return board;
+    }
+
+    /** Return a move that puts piece number PIECE on empty squares of
+     *  BOARD, whether or not it is legal, or Move.NONE if none was
+     *  found.  Of TRIES placements chosen at random with RAND, the one
+     *  in the lowest-numbered row is taken, so that the squares left
+     *  empty lie together in the last rows of the board. */
+    private static int randomFit(Board board, int piece, Random rand) {
+        Orientation[] orientations = Pieces.getOrientations(piece);
+        int best = Move.NONE, bestRow = Board.SIZE;
+        for (int t = 0; t < TRIES; t++) {
+            Orientation o = orientations[rand.nextInt(orientations.length)];
+            int col = rand.nextInt(Board.SIZE - o.getWidth() + 1);
+            int row = rand.nextInt(Board.SIZE - o.getHeight() + 1);
+            int[] rows = o.getRows();
+            boolean fits = row < bestRow;
+            for (int i = 0; i < rows.length && fits; i++) {
+                fits = ((board.getOccupied(0, row + i)
+                         | board.getOccupied(1, row + i))
+                        & (rows[i] << col)) == 0;
+            }
+            if (fits) {
+                best = Move.make(piece, col, row, o.getOrientNum());
+                bestRow = row;
+            }
+        }
+        return best;
+    }
+
+    /** Return true iff orange, on move on BOARD, can place both of its
+     *  pieces in some line of play. */
+    private static boolean playsBoth(MutableBoard board) {
+        MoveList moves = new MoveList();
+        board.legalMoves(0, board.getPieces(0), moves);
+        for (int k = 0; k < moves.size(); k++) {
+            board.makeMove(moves.get(k));
+            MoveList replies = new MoveList();
+            board.legalMoves(1, board.getPieces(1), replies);
+            for (int j = 0; j < replies.size(); j++) {
+                board.makeMove(replies.get(j));
+                boolean both = board.hasLegalMove(0, board.getPieces(0));
+                board.unmakeMove();
+                if (both) {
+                    board.unmakeMove();
+                    return true;
+                }
+            }
+            board.unmakeMove();
+        }
+        return false;
+    }
+
+    /** Return the final margin of the player on move on BOARD with best
+     *  play by both sides, found by searching every line.  BOARD is left
+     *  as it was found. */
+    private static int minimax(MutableBoard board) {
+        int player = board.playerOnNum();
+        MoveList moves = new MoveList();
+        board.legalMoves(player, board.getPieces(player), moves);
+        if (moves.isEmpty()) {
+            return board.getScore(player) - board.getScore(1 - player);
+        }
+        int best = -EndgameSolver.INFINITY;
+        for (int k = 0; k < moves.size(); k++) {
+            board.makeMove(moves.get(k));
+            best = Math.max(best, -minimax(board));
+            board.unmakeMove();
+        }
+        return best;
+    }
+
+}
@@ -0,0 +1,216 @@
+package duo;
+
+/** An exact solver for the end of a game of Duo.  It searches every
+ *  line of play to the end of the game with negamax and alpha-beta
+ *  pruning, valuing each finished game by the final difference in
+ *  scores, bonuses included, so the move it returns is proven to give
+ *  the player on move the best margin (and so the best result) that
+ *  any move can against any defence.  Only the last few moves of a game
+ *  can be solved in time, so a search stops and reports failure if a
+ *  deadline passes first.
+ *  Besides the usual pruning, a position is cut off without generating
+ *  its moves when the scores alone settle it: no line can give the
+ *  player on move more than its squares so far, plus the squares of
+ *  all its pieces left and any bonus it can still earn, less its
+ *  opponent's squares so far.  Results are kept in a
+ *  TranspositionTable, and larger pieces are tried first.
+ *  @author Zack Mayeda
+ */
+class EndgameSolver {
+
+    /** A value larger than the margin of any game. */
+    static final int INFINITY = 1000;
+
+    /** The number of nodes searched between checks of the clock. */
+    private static final int CLOCK_INTERVAL = 1024;
+
+    /** The depth recorded with every entry in my table: all of them
+     *  are searched to the end of the game. */
+    private static final int TO_END = 1;
+
+    /** A solver whose transposition table has 2 to the power TABLEBITS
+     *  entries. */
+    EndgameSolver(int tableBits) {
+        _table = new TranspositionTable(tableBits);
+        for (int ply = 0; ply <= MutableBoard.MAX_MOVES; ply++) {
+            _moveLists[ply] = new MoveList();
+        }
+    }
+
+    /** Search BOARD to the end of the game, giving up at System.nanoTime
+     *  DEADLINE.  Return true iff the search finished, in which case
+     *  getBestMove and getValue give its result. */
+    boolean solve(Board board, long deadline) {
+        _deadline = deadline;
+        _aborted = false;
+        _table.newSearch();
+        _board = new MutableBoard(board);
+        int player = board.playerOnNum();
+        MoveList moves = _moveLists[0];
+        moves.clear();
+        board.legalMoves(player, board.getPieces(player), moves);
+        _bestMove = Move.NONE;
+        if (moves.isEmpty()) {
+            _value = board.getScore(player) - board.getScore(1 - player);
+            return true;
+        }
+        moves.sortDescending();
+        int alpha = -INFINITY;
+        for (int k = 0; k < moves.size(); k++) {
+            _board.makeMove(moves.get(k));
+            int value = -negamax(1, -INFINITY, -alpha);
+            _board.unmakeMove();
+            if (_aborted) {
+                return false;
+            }
+            if (value > alpha) {
+                alpha = value;
+                _bestMove = moves.get(k);
+            }
+        }
+        _value = alpha;
+        return true;
+    }
+
+    /** Return the final margin of my board for the player on move, with
+     *  best play to the end, where the board is PLY plies below the
+     *  root.  The result is exact if it lies strictly between ALPHA and
+     *  BETA, and otherwise only bounded by the one it does not exceed.
+     *  The board is left as it was found. */
+    private int negamax(int ply, int alpha, int beta) {
+        MutableBoard board = _board;
+        _nodes += 1;
+        if (_nodes % CLOCK_INTERVAL == 0 && System.nanoTime() > _deadline) {
+            _aborted = true;
+        }
+        if (_aborted) {
+            return 0;
+        }
+        int player = board.playerOnNum();
+        int upper = bestMargin(board, player);
+        if (upper <= alpha) {
+            return upper;
+        }
+        int lower = -bestMargin(board, 1 - player);
+        if (lower >= beta) {
+            return lower;
+        }
+        long hash = board.getHash();
+        long entry = _table.probe(hash);
+        int hashMove = Move.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.getMove(entry);
+            int value = TranspositionTable.getValue(entry);
+            int bound = TranspositionTable.getBound(entry);
+            if (bound == TranspositionTable.EXACT
+                || (bound == TranspositionTable.LOWER && value >= beta)
+                || (bound == TranspositionTable.UPPER && value <= alpha)) {
+                return value;
+            }
+        }
+        MoveList moves = _moveLists[ply];
+        moves.clear();
+        board.legalMoves(player, board.getPieces(player), moves);
+        if (moves.isEmpty()) {
+            return board.getScore(player) - board.getScore(1 - player);
+        }
+        moves.sortDescending();
+        if (hashMove != Move.NONE) {
+            for (int k = 0; k < moves.size(); k++) {
+                if (moves.get(k) == hashMove) {
+                    moves.moveToFront(k);
+                    break;
+                }
+            }
+        }
+        int originalAlpha = alpha;
+        int bestMove = Move.NONE;
+        for (int k = 0; k < moves.size(); k++) {
+            board.makeMove(moves.get(k));
+            int value = -negamax(ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (_aborted) {
+                return 0;
+            }
+            if (value > alpha) {
+                alpha = value;
+                bestMove = moves.get(k);
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        int bound;
+        if (alpha >= beta) {
+            bound = TranspositionTable.LOWER;
+        } else if (alpha > originalAlpha) {
+            bound = TranspositionTable.EXACT;
+        } else {
+            bound = TranspositionTable.UPPER;
+        }
+        _table.store(hash, alpha, bestMove, TO_END, bound);
+        return alpha;
+    }
+
+    /** Return an upper bound on the final margin of player PLAYER on
+     *  BOARD: its squares so far, plus the squares of all its pieces
+     *  left and the monomino bonus if it can still earn it, less its
+     *  opponent's squares so far.  If both players can still end with
+     *  the monomino, each scoring Board.WIN, the margin may also be 0. */
+    static int bestMargin(Board board, int player) {
+        int opponent = 1 - player;
+        boolean bonus = canEarnBonus(board, player);
+        int margin = board.getSquares(player)
+            + board.getPieceSquares(player)
+            + (bonus ? Board.MONOMINO_BONUS : 0)
+            - board.getSquares(opponent);
+        if (bonus && canEarnBonus(board, opponent)) {
+            margin = Math.max(margin, 0);
+        }
+        return margin;
+    }
+
+    /** Return true iff player PLAYER on BOARD may still end the game
+     *  having placed all its pieces with the monomino last. */
+    private static boolean canEarnBonus(Board board, int player) {
+        int pieces = board.getPieces(player);
+        return (pieces & 1) != 0 || board.placedMonominoLast(player);
+    }
+
+    /** Return the best move found by the last search that finished, or
+     *  Move.NONE if the player on move had no legal move. */
+    int getBestMove() {
+        return _bestMove;
+    }
+
+    /** Return the final margin of the player on move, with best play by
+     *  both sides, found by the last search that finished. */
+    int getValue() {
+        return _value;
+    }
+
+    /** Return the number of positions I have searched. */
+    long getNodes() {
+        return _nodes;
+    }
+
+    /** The board on which the current search makes and takes back
+     *  moves. */
+    private MutableBoard _board;
+    /** Results of earlier searches, by position. */
+    private final TranspositionTable _table;
+    /** A list of moves for each ply of the search, reused between nodes. */
+    private final MoveList[] _moveLists =
+        new MoveList[MutableBoard.MAX_MOVES + 1];
+    /** The System.nanoTime at which the current search must stop. */
+    private long _deadline;
+    /** True iff the current search has run out of time. */
+    private boolean _aborted;
+    /** The number of positions searched so far. */
+    private long _nodes;
+    /** The best move found by the last search that finished. */
+    private int _bestMove;
+    /** The value of the last search that finished. */
+    private int _value;
+
+}
@@ -0,0 +1,14 @@
+package duo;
+
+/** A static evaluation of Duo positions, used by searching players to
+ *  judge the positions at the leaves of their search.
+ *  @author Zack Mayeda
+ */
+interface Evaluator {
+
+    /** Return the value of BOARD to player PLAYER (0 for orange, 1 for
+     *  violet): larger values are better for PLAYER, and the value to
+     *  the other player is the negation.  BOARD is not a finished game. */
+    int evaluate(Board board, int player);
+
+}
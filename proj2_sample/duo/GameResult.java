@@ -0,0 +1,69 @@
+package duo;
+
+import static duo.Color.*;
+
+/** The outcome of one game of Duo, as returned by Game.play.
+ *  @author Zack Mayeda
+ */
+class GameResult {
+
+    /** The outcome of a game that ended with ORANGESCORE to VIOLETSCORE
+     *  after NUMMOVES moves, QUIT being true iff a player quit before
+     *  the game was over.  ORANGENANOS and VIOLETNANOS are the times
+     *  each player took for each of its moves, in nanoseconds. */
+    GameResult(int orangeScore, int violetScore, int numMoves,
+               boolean quit, long[] orangeNanos, long[] violetNanos) {
+        _orangeScore = orangeScore;
+        _violetScore = violetScore;
+        _numMoves = numMoves;
+        _quit = quit;
+        _orangeNanos = orangeNanos;
+        _violetNanos = violetNanos;
+    }
+
+    /** Return the score of the player of COLOR. */
+    int getScore(Color color) {
+        return color == ORANGE ? _orangeScore : _violetScore;
+    }
+
+    /** Return the color of the winner, or EMPTY for a tie. */
+    Color getWinner() {
+        if (_orangeScore > _violetScore) {
+            return ORANGE;
+        } else if (_violetScore > _orangeScore) {
+            return VIOLET;
+        }
+        return EMPTY;
+    }
+
+    /** Return the number of moves made (VIOLET and ORANGE). */
+    int getNumMoves() {
+        return _numMoves;
+    }
+
+    /** Return true iff a player quit before the game was over. */
+    boolean isQuit() {
+        return _quit;
+    }
+
+    /** Return the times the player of COLOR took for each of its moves,
+     *  in order, in nanoseconds.  The array is shared and must not be
+     *  modified. */
+    long[] getMoveNanos(Color color) {
+        return color == ORANGE ? _orangeNanos : _violetNanos;
+    }
+
+    /** The final score of orange. */
+    private final int _orangeScore;
+    /** The final score of violet. */
+    private final int _violetScore;
+    /** The number of moves made. */
+    private final int _numMoves;
+    /** True iff a player quit. */
+    private final boolean _quit;
+    /** The times orange took for its moves. */
+    private final long[] _orangeNanos;
+    /** The times violet took for its moves. */
+    private final long[] _violetNanos;
+
+}
@@ -21,8 +21,11 @@ class Human extends Player {
     @Override
     void move() {
         Board b = _game.getBoard();
-        String theMove = _ui.getMove(getColor(), _game.getNumMoves(),
-                                     _game.getPrevMove(getColor()));
+        int prevMove = _game.getPrevMove(getColor());
+        String theMove =
+            _ui.getMove(getColor(), _game.getNumMoves(),
+                        prevMove == Move.NONE ? "nothing"
+                        : Move.toString(prevMove));
         Color currentColor = b.playerOnMove();
         if (Board.isWellFormed(theMove)) {
             _game.move(theMove);
@@ -1,9 +1,11 @@
 package duo;
 
+import java.util.Arrays;
 import java.util.Scanner;
 import java.io.FileReader;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 
 /** Initial class for the duo program.
  *  @author Zack Mayeda
@@ -13,12 +15,39 @@ public final class Main {
     /** Entry point for the CS61B duo program.  ARGS may contain 2 to 4
      *  arguments: SRC1 SRC2 [ SEED [ INITIAL-MOVES-FILE ] ].  SRC1
      *  and SRC2 are names of players; automated players start with
-     *  "@".  OPTIONAL_SEED, if present is a long integer numeral
-     *  giving an initial seed for a pseudo-random number generator.
+     *  "@".  Names starting with "@ab" are searching players, which
+     *  spend DEFAULT_BUDGET milliseconds per move unless the name ends
+     *  in ":" followed by another number of milliseconds, as in
+     *  "@ab:250".  Names starting with "@mcts" are Monte Carlo tree
+     *  search players, which take a budget the same way and search on
+     *  every available processor (on one each in a tournament, whose
+     *  games already keep every processor busy).  OPTIONAL_SEED, if
+     *  present is a long integer numeral giving an initial seed for a
+     *  pseudo-random number generator.
      *  With identical seeds, the program will behave identically on
-     *  identical inputs. */
+     *  identical inputs.
+     *
+     *  Alternatively, ARGS may be -t GAMES SRC1 SRC2 [ SEED ], which
+     *  plays a Tournament of GAMES games between the automated players
+     *  SRC1 and SRC2, with seeds derived from SEED, and reports the
+     *  totals.
+     *
+     *  Either form may be preceded by -b BOOK, which has every automated
+     *  player take its opening moves from the opening book in the file
+     *  BOOK, made by BookBuilder, while the book has moves for the
+     *  position. */
     public static void main(String... args) {
 
+        if (args.length > 1 && args[0].equals("-b")) {
+            openBook(args[1], new TextUI());
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+
+        if (args.length > 0 && args[0].equals("-t")) {
+            tournament(args);
+            System.exit(0);
+        }
+
         if (args.length < 2 || args.length > 4) {
             usage();
         }
@@ -28,16 +57,8 @@ public final class Main {
         long seed;
         UI ui = new TextUI();
 
-        if (args[0].startsWith("@")) {
-            orange = new AI(args[0], ui);
-        } else {
-            orange = new Human(args[0], ui);
-        }
-        if (args[1].startsWith("@")) {
-            violet = new AI(args[1], ui);
-        } else {
-            violet = new Human(args[1], ui);
-        }
+        orange = makePlayer(args[0], ui);
+        violet = makePlayer(args[1], ui);
 
         seed = 0;
         if (args.length > 2) {
@@ -55,6 +76,108 @@ public final class Main {
         }
 
         game.play();
+        System.exit(0);
+    }
+
+    /** The default time a searching player spends per move, in
+     *  milliseconds. */
+    static final long DEFAULT_BUDGET = 1000;
+
+    /** The weights of the score, mobility and corner differences in the
+     *  evaluation used by searching players. */
+    private static final int[] SEARCH_WEIGHTS = { 4, 0, 1 };
+
+    /** The opening book of automated players. */
+    private static OpeningBook _book = new OpeningBook();
+
+    /** Return a new player named NAME that uses UI for input and
+     *  messages: a searching player if NAME starts with "@ab", a Monte
+     *  Carlo tree search player if it starts with "@mcts", another
+     *  automated player if it starts with "@", and otherwise a human.
+     *  Automated players use the opening book given by -b, if any.  A
+     *  Monte Carlo tree search player searches on every available
+     *  processor. */
+    static Player makePlayer(String name, UI ui) {
+        return makePlayer(name, ui,
+                          Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Return a new player named NAME that uses UI, as for
+     *  makePlayer(NAME, UI), except that a Monte Carlo tree search
+     *  player searches on SEARCHTHREADS threads. */
+    static Player makePlayer(String name, UI ui, int searchThreads) {
+        Player player;
+        if (name.startsWith("@ab")) {
+            player = new SearchAI(name, ui, budget(name, ui),
+                                  new WeightedEvaluator(SEARCH_WEIGHTS[0],
+                                                        SEARCH_WEIGHTS[1],
+                                                        SEARCH_WEIGHTS[2]));
+        } else if (name.startsWith("@mcts")) {
+            player = new MctsAI(name, ui, budget(name, ui), searchThreads);
+        } else if (name.startsWith("@")) {
+            player = new AI(name, ui);
+        } else {
+            return new Human(name, ui);
+        }
+        player.setBook(_book);
+        return player;
+    }
+
+    /** Make the opening book in the file named FILENAME the book of
+     *  automated players.  Report errors to UI. */
+    private static void openBook(String fileName, UI ui) {
+        try {
+            _book = new OpeningBook(fileName);
+        } catch (IOException e) {
+            fatalError(ui, "cannot open opening book.");
+        } catch (IllegalArgumentException e) {
+            fatalError(ui, e.getMessage());
+        }
+    }
+
+    /** Return the time budget per move, in milliseconds, given by the
+     *  player name NAME: the number after its ":", or DEFAULT_BUDGET if
+     *  it has none.  Report a bad number on UI. */
+    private static long budget(String name, UI ui) {
+        long budget = DEFAULT_BUDGET;
+        int colon = name.indexOf(':');
+        if (colon >= 0) {
+            try {
+                budget = Long.parseLong(name.substring(colon + 1));
+            } catch (NumberFormatException e) {
+                fatalError(ui, "Time budget has bad format");
+            }
+        }
+        return budget;
+    }
+
+    /** Play and report the tournament described by ARGS, which are
+     *  -t GAMES SRC1 SRC2 [ SEED ]. */
+    private static void tournament(String... args) {
+        if (args.length < 4 || args.length > 5) {
+            usage();
+        }
+        UI ui = new TextUI();
+        int games = 0;
+        long seed = 0;
+        try {
+            games = Integer.parseInt(args[1]);
+            if (args.length > 4) {
+                seed = Long.parseLong(args[4]);
+            }
+        } catch (NumberFormatException e) {
+            fatalError(ui, "Game count or seed has bad format");
+        }
+        if (games <= 0) {
+            fatalError(ui, "Game count must be positive");
+        }
+        for (int k = 2; k <= 3; k += 1) {
+            if (!args[k].startsWith("@")) {
+                fatalError(ui, "Tournament players must be automated");
+            }
+            makePlayer(args[k], ui);
+        }
+        new Tournament(args[2], args[3], games, seed).run(ui);
     }
 
     /** Read moves from the file named INITFILENAME into GAME.  Report
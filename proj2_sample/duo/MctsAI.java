@@ -0,0 +1,326 @@
+package duo;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/** An automated player that chooses moves by Monte Carlo tree search.
+ *  Each search grows a tree of positions below the current one.  A
+ *  playout walks down the tree, at each node taking the child with the
+ *  highest UCT score (its mean result plus a bonus that shrinks as it
+ *  is visited more), adds one untried move below the node it stops at,
+ *  and finishes the game from there with a Playout, which places a
+ *  random piece of the largest size that fits at each turn.
+ *  The result is credited to every node on the way down, and when my
+ *  time budget runs out I play the most visited move.
+ *  Searches use root parallelism: each of several threads grows its own
+ *  tree on its own board with its own random numbers, so the threads
+ *  share nothing until the clock runs out and the visits of their root
+ *  moves are added up.  Each tree keeps the subtree below the move I
+ *  played, and then the one below my opponent's reply, so the playouts
+ *  of one search still count in the next.
+ *  @author Zack Mayeda
+ */
+class MctsAI extends Player {
+
+    /** The weight of the exploration bonus in the UCT score: the square
+     *  root of 2, as in UCB1, since results lie between 0 and 1. */
+    static final double EXPLORATION = Math.sqrt(2);
+
+    /** The result of a tied game to either player; a win is 1 and a loss
+     *  is 0. */
+    static final double TIE = 0.5;
+
+    /** The number of nanoseconds in a millisecond. */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /** A player named NAME that uses UI for messages and spends about
+     *  BUDGETMILLIS milliseconds on each move, searching on THREADS
+     *  threads. */
+    MctsAI(String name, UI ui, long budgetMillis, int threads) {
+        super(name, ui);
+        _budget = budgetMillis * NANOS_PER_MILLI;
+        _workers = new Worker[threads];
+        for (int k = 0; k < threads; k++) {
+            _workers[k] = new Worker();
+        }
+    }
+
+    @Override
+    void move() {
+        int book = bookMove();
+        if (book != Move.NONE) {
+            _game.move(book);
+            return;
+        }
+        for (Worker worker : _workers) {
+            worker._rand.setSeed(_game.getRand().nextLong());
+        }
+        _game.move(findMove(_game.getBoard()));
+    }
+
+    /** Return the most visited move for the player on move in BOARD
+     *  after searching for my time budget, or Move.NONE if that player
+     *  has no legal move. */
+    int findMove(Board board) {
+        long start = System.nanoTime();
+        int opponent = 1 - board.playerOnNum();
+        int reply = board.getLastMove(opponent);
+        long beforeReply = board.getHash();
+        if (reply != Move.NONE) {
+            beforeReply ^= Zobrist.move(opponent, reply);
+            if (board.placedMonominoLast(opponent)) {
+                beforeReply ^= Zobrist.bonus(opponent);
+            }
+        }
+        boolean reuse = reply != Move.NONE && beforeReply == _treeHash;
+        for (Worker worker : _workers) {
+            worker.startSearch(board, reuse ? reply : Move.NONE,
+                               start + _budget);
+        }
+        Thread[] threads = new Thread[_workers.length - 1];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new Thread(_workers[k + 1]);
+            threads[k].start();
+        }
+        _workers[0].run();
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Map<Integer, Long> visits = new HashMap<Integer, Long>();
+        for (Worker worker : _workers) {
+            _playouts += worker._playouts;
+            Node root = worker._root;
+            for (int k = 0; k < root._numChildren; k++) {
+                Node child = root._children[k];
+                Long total = visits.get(child._move);
+                visits.put(child._move, (total == null ? 0 : total)
+                           + child._visits);
+            }
+        }
+        int best = Move.NONE;
+        long bestVisits = -1;
+        for (Map.Entry<Integer, Long> entry : visits.entrySet()) {
+            int move = entry.getKey();
+            long count = entry.getValue();
+            if (count > bestVisits || (count == bestVisits && move > best)) {
+                best = move;
+                bestVisits = count;
+            }
+        }
+        if (best != Move.NONE) {
+            for (Worker worker : _workers) {
+                worker._root = worker._root.find(best);
+            }
+            MutableBoard next = new MutableBoard(board);
+            next.makeMove(best);
+            _treeHash = next.getHash();
+        }
+        _searchNanos += System.nanoTime() - start;
+        return best;
+    }
+
+    /** Return the number of playouts I have made. */
+    long getPlayouts() {
+        return _playouts;
+    }
+
+    /** Return the total time I have spent searching, in nanoseconds. */
+    long getSearchNanos() {
+        return _searchNanos;
+    }
+
+    /** A position in a search tree, reached by one move from its
+     *  parent. */
+    private static final class Node {
+
+        /** A node reached by MOVE, or the root if MOVE is Move.NONE. */
+        Node(int move) {
+            _move = move;
+        }
+
+        /** Set my untried moves to the legal moves of the player on move
+         *  in BOARD, which must be my position, using MOVES to collect
+         *  them. */
+        void expand(Board board, MoveList moves) {
+            int player = board.playerOnNum();
+            moves.clear();
+            board.legalMoves(player, board.getPieces(player), moves);
+            _untriedCount = moves.size();
+            _untried = new int[_untriedCount];
+            for (int k = 0; k < _untriedCount; k++) {
+                _untried[k] = moves.get(k);
+            }
+            _children = new Node[_untriedCount];
+        }
+
+        /** Remove one of my untried moves, chosen with RAND, and return
+         *  the new child it leads to. */
+        Node addChild(Random rand) {
+            int k = rand.nextInt(_untriedCount);
+            int move = _untried[k];
+            _untriedCount -= 1;
+            _untried[k] = _untried[_untriedCount];
+            Node child = new Node(move);
+            _children[_numChildren] = child;
+            _numChildren += 1;
+            return child;
+        }
+
+        /** Return my child with the highest UCT score.  I must have at
+         *  least one child. */
+        Node select() {
+            double logVisits = Math.log(_visits);
+            Node best = null;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < _numChildren; k++) {
+                Node child = _children[k];
+                double score = child._wins / child._visits
+                    + EXPLORATION * Math.sqrt(logVisits / child._visits);
+                if (score > bestScore) {
+                    best = child;
+                    bestScore = score;
+                }
+            }
+            return best;
+        }
+
+        /** Return my child reached by MOVE, or null if I have none. */
+        Node find(int move) {
+            for (int k = 0; k < _numChildren; k++) {
+                if (_children[k]._move == move) {
+                    return _children[k];
+                }
+            }
+            return null;
+        }
+
+        /** The move that reaches me from my parent. */
+        private final int _move;
+        /** The legal moves from me that have no child yet, in
+         *  _untried[0 .. _untriedCount-1], or null before expand. */
+        private int[] _untried;
+        /** The number of untried moves. */
+        private int _untriedCount;
+        /** My children, in _children[0 .. _numChildren-1]. */
+        private Node[] _children;
+        /** The number of my children. */
+        private int _numChildren;
+        /** The number of playouts that have passed through me. */
+        private int _visits;
+        /** The total result of those playouts to the player who made
+         *  my move. */
+        private double _wins;
+    }
+
+    /** One thread's share of a search: a tree, and a board and random
+     *  numbers for its playouts. */
+    private static final class Worker implements Runnable {
+
+        /** Prepare to search from BOARD until the System.nanoTime
+         *  DEADLINE, keeping the subtree of my tree below REPLY, the
+         *  move made since my last search, or starting a new tree if
+         *  REPLY is Move.NONE or my tree has no such subtree. */
+        void startSearch(Board board, int reply, long deadline) {
+            if (_root != null && reply != Move.NONE) {
+                _root = _root.find(reply);
+            } else {
+                _root = null;
+            }
+            if (_root == null) {
+                _root = new Node(Move.NONE);
+            }
+            _board = new MutableBoard(board);
+            _deadline = deadline;
+            _playouts = 0;
+        }
+
+        @Override
+        public void run() {
+            do {
+                playout();
+                _playouts += 1;
+            } while (System.nanoTime() < _deadline);
+        }
+
+        /** Make one playout from my root, crediting its result to the
+         *  nodes it passes, and leave my board as it was. */
+        private void playout() {
+            MutableBoard board = _board;
+            int rootPlayer = board.playerOnNum();
+            Node node = _root;
+            _path[0] = node;
+            int depth = 0;
+            while (true) {
+                if (node._untried == null) {
+                    node.expand(board, _moves);
+                }
+                boolean added = node._untriedCount > 0;
+                if (added) {
+                    node = node.addChild(_rand);
+                } else if (node._numChildren > 0) {
+                    node = node.select();
+                } else {
+                    break;
+                }
+                board.makeMove(node._move);
+                depth += 1;
+                _path[depth] = node;
+                if (added) {
+                    break;
+                }
+            }
+            _playout.setPosition(board);
+            int margin = _playout.play();
+            double orangeResult = TIE;
+            if (margin != 0) {
+                orangeResult = margin > 0 ? 1 : 0;
+            }
+            _path[0]._visits += 1;
+            for (int k = 1; k <= depth; k++) {
+                Node n = _path[k];
+                int mover = (rootPlayer + k - 1) % 2;
+                n._visits += 1;
+                n._wins += mover == 0 ? orangeResult : 1 - orangeResult;
+            }
+            for (int k = 0; k < depth; k++) {
+                board.unmakeMove();
+            }
+        }
+
+        /** The root of my tree, or null if I have none. */
+        private Node _root;
+        /** The board my playouts are made on. */
+        private MutableBoard _board;
+        /** The nodes of the current playout, from the root down. */
+        private final Node[] _path = new Node[MutableBoard.MAX_MOVES + 1];
+        /** A list of moves reused by every node expanded. */
+        private final MoveList _moves = new MoveList();
+        /** My random numbers. */
+        private final Random _rand = new Random();
+        /** The engine that finishes my playouts. */
+        private final Playout _playout =
+            new Playout(_rand, Playout.LARGEST_FIRST);
+        /** The System.nanoTime at which the current search must stop. */
+        private long _deadline;
+        /** The number of playouts made in the current search. */
+        private long _playouts;
+    }
+
+    /** The time I may spend on each move, in nanoseconds. */
+    private final long _budget;
+    /** The searches of each of my threads. */
+    private final Worker[] _workers;
+    /** The hash of the position at the root of my trees after my last
+     *  move, or 0 if I have not moved. */
+    private long _treeHash;
+    /** The number of playouts made so far. */
+    private long _playouts;
+    /** The total time spent searching so far, in nanoseconds. */
+    private long _searchNanos;
+
+}
@@ -0,0 +1,96 @@
+package duo;
+
+/** Moves packed into single ints.  A move places piece number P (see
+ *  Pieces) in orientation number D with the lower-left corner of its
+ *  bounding box at column C and row R, and is stored as the int
+ *  (P << 11) | (C << 7) | (R << 3) | D.  The engine passes moves around
+ *  in this form; the PCRD strings that players type and the UI prints
+ *  are produced only by toString and read only by parse.
+ *  @author Zack Mayeda
+ */
+final class Move {
+
+    /** Not a move: returned by parse for input that is not a well-formed
+     *  placement, and used where no move has been made. */
+    static final int NONE = -1;
+
+    /** The PCRD character for each piece, indexed by piece number. */
+    private static final String PIECE_CHARS = "12v3stdizPFYNVXTULIZW";
+
+    /** The number of bits holding the orientation number. */
+    private static final int ORIENT_BITS = 3;
+
+    /** The number of bits holding a row or column number. */
+    private static final int COORD_BITS = 4;
+
+    /** The radix of column and row numbers in PCRD form. */
+    private static final int RADIX = 16;
+
+    /** The length of a move in PCRD form. */
+    private static final int PCRD_LENGTH = 4;
+
+    /** Moves are never instantiated. */
+    private Move() {
+    }
+
+    /** Return the move placing piece number PIECE in orientation number
+     *  ORIENT with its lower-left corner at column COL and row ROW. */
+    static int make(int piece, int col, int row, int orient) {
+        return (((((piece << COORD_BITS) | col) << COORD_BITS) | row)
+                << ORIENT_BITS) | orient;
+    }
+
+    /** Return the piece number of MOVE. */
+    static int getPiece(int move) {
+        return move >>> (2 * COORD_BITS + ORIENT_BITS);
+    }
+
+    /** Return the column number of MOVE. */
+    static int getCol(int move) {
+        return (move >>> (COORD_BITS + ORIENT_BITS)) & ((1 << COORD_BITS) - 1);
+    }
+
+    /** Return the row number of MOVE. */
+    static int getRow(int move) {
+        return (move >>> ORIENT_BITS) & ((1 << COORD_BITS) - 1);
+    }
+
+    /** Return the orientation number of MOVE. */
+    static int getOrient(int move) {
+        return move & ((1 << ORIENT_BITS) - 1);
+    }
+
+    /** Return the oriented piece placed by MOVE. */
+    static Orientation getOrientation(int move) {
+        return Pieces.getOrientation(getPiece(move), getOrient(move));
+    }
+
+    /** Return the move denoted by the PCRD string PCRD, or NONE if PCRD
+     *  is not a well-formed placement. */
+    static int parse(String pcrd) {
+        if (pcrd == null || pcrd.length() != PCRD_LENGTH) {
+            return NONE;
+        }
+        int piece = PIECE_CHARS.indexOf(pcrd.charAt(0));
+        int col = Character.digit(pcrd.charAt(1), RADIX);
+        int row = Character.digit(pcrd.charAt(2), RADIX);
+        int orient = Character.digit(pcrd.charAt(3), RADIX);
+        if (piece < 0 || col < 0 || col >= Board.SIZE
+            || row < 0 || row >= Board.SIZE
+            || orient < 0 || orient >= Pieces.NUM_ORIENTS) {
+            return NONE;
+        }
+        return make(piece, col, row, orient);
+    }
+
+    /** Return MOVE in PCRD form. */
+    static String toString(int move) {
+        return new String(new char[] {
+            PIECE_CHARS.charAt(getPiece(move)),
+            Character.forDigit(getCol(move), RADIX),
+            Character.forDigit(getRow(move), RADIX),
+            Character.forDigit(getOrient(move), RADIX)
+        });
+    }
+
+}
@@ -0,0 +1,73 @@
+package duo;
+
+import java.util.Arrays;
+
+/** A growable list of moves in the packed form of Move, kept in an
+ *  int array so that filling and clearing it allocates nothing once
+ *  it has grown to size.
+ *  @author Zack Mayeda
+ */
+class MoveList {
+
+    /** The initial capacity of a MoveList. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** An empty list. */
+    MoveList() {
+        _moves = new int[INITIAL_CAPACITY];
+    }
+
+    /** Return the number of moves in me. */
+    int size() {
+        return _size;
+    }
+
+    /** Return true iff I hold no moves. */
+    boolean isEmpty() {
+        return _size == 0;
+    }
+
+    /** Return my Kth move. */
+    int get(int k) {
+        return _moves[k];
+    }
+
+    /** Add MOVE to my end. */
+    void add(int move) {
+        if (_size == _moves.length) {
+            _moves = Arrays.copyOf(_moves, 2 * _size);
+        }
+        _moves[_size] = move;
+        _size += 1;
+    }
+
+    /** Move my Kth move to my front, shifting the moves before it back
+     *  by one. */
+    void moveToFront(int k) {
+        int move = _moves[k];
+        System.arraycopy(_moves, 0, _moves, 1, k);
+        _moves[0] = move;
+    }
+
+    /** Sort my moves into decreasing numerical order, which puts moves
+     *  of larger pieces first. */
+    void sortDescending() {
+        Arrays.sort(_moves, 0, _size);
+        for (int i = 0, j = _size - 1; i < j; i++, j--) {
+            int tmp = _moves[i];
+            _moves[i] = _moves[j];
+            _moves[j] = tmp;
+        }
+    }
+
+    /** Remove all my moves. */
+    void clear() {
+        _size = 0;
+    }
+
+    /** My moves, in _moves[0 .. _size-1]. */
+    private int[] _moves;
+    /** The number of moves I hold. */
+    private int _size;
+
+}
@@ -0,0 +1,278 @@
+package duo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/** A book of opening moves, read from a file made by BookBuilder.  The
+ *  file holds a header and then a table of entries sorted by position,
+ *  each a hash, a move and a weight.  The board and its starting
+ *  corners look the same under its eight rotations and reflections, so
+ *  a position is filed under the smallest of the Zobrist hashes of its
+ *  eight images, its canonical hash, and its moves are recorded as they
+ *  would be played on the image with that hash.  The file is mapped
+ *  into memory rather than read, so opening even a large book takes no
+ *  time, and a position is found by binary search of the mapped table.
+ *  @author Zack Mayeda
+ */
+class OpeningBook {
+
+    /** The number that starts every book file. */
+    static final int MAGIC = 0x4455424B;
+
+    /** The size of the header of a book file, in bytes: MAGIC, the
+     *  number of plies covered and the number of entries. */
+    static final int HEADER_BYTES = 12;
+
+    /** The size of each entry of a book file, in bytes: a long hash, an
+     *  int move and an int weight. */
+    static final int ENTRY_BYTES = 16;
+
+    /** The number of rotations and reflections of the board. */
+    static final int SYMMETRIES = 8;
+
+    /** The largest row or column number. */
+    private static final int LAST = Board.SIZE - 1;
+
+    /** INVERSE[S] is the symmetry that undoes symmetry S. */
+    private static final int[] INVERSE = new int[SYMMETRIES];
+
+    static {
+        for (int s = 0; s < SYMMETRIES; s++) {
+            for (int t = 0; t < SYMMETRIES; t++) {
+                if (transformCol(t, transformCol(s, 1, 2),
+                                 transformRow(s, 1, 2)) == 1
+                    && transformRow(t, transformCol(s, 1, 2),
+                                    transformRow(s, 1, 2)) == 2) {
+                    INVERSE[s] = t;
+                }
+            }
+        }
+    }
+
+    /** An empty book, which has no moves for any position. */
+    OpeningBook() {
+        _entries = ByteBuffer.allocate(0);
+        _plies = 0;
+        _size = 0;
+    }
+
+    /** The book in the file named FILENAME.  Throws IOException if the
+     *  file cannot be read, and IllegalArgumentException if it is not a
+     *  book. */
+    OpeningBook(String fileName) throws IOException {
+        try (FileChannel channel =
+             FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            MappedByteBuffer map =
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (map.capacity() < HEADER_BYTES || map.getInt(0) != MAGIC) {
+                throw new IllegalArgumentException("not an opening book: "
+                                                   + fileName);
+            }
+            _plies = map.getInt(4);
+            _size = map.getInt(8);
+            if ((long) HEADER_BYTES + (long) _size * ENTRY_BYTES
+                > map.capacity()) {
+                throw new IllegalArgumentException("truncated opening book: "
+                                                   + fileName);
+            }
+            _entries = map;
+        }
+    }
+
+    /** Write a book covering the first PLIES plies to the file named
+     *  FILENAME, whose entries are HASHES[K], MOVES[K] and WEIGHTS[K] for
+     *  each K.  HASHES must be in increasing order.  Throws IOException
+     *  if the file cannot be written. */
+    static void write(String fileName, int plies, long[] hashes,
+                      int[] moves, int[] weights) throws IOException {
+        ByteBuffer buffer =
+            ByteBuffer.allocate(HEADER_BYTES + hashes.length * ENTRY_BYTES);
+        buffer.putInt(MAGIC).putInt(plies).putInt(hashes.length);
+        for (int k = 0; k < hashes.length; k++) {
+            buffer.putLong(hashes[k]).putInt(moves[k]).putInt(weights[k]);
+        }
+        buffer.flip();
+        try (FileChannel channel =
+             FileChannel.open(Paths.get(fileName),
+                              StandardOpenOption.WRITE,
+                              StandardOpenOption.CREATE,
+                              StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /** Return a move from me for the player on move in BOARD, chosen
+     *  with RAND with probability in proportion to its weight, or
+     *  Move.NONE if I have none. */
+    int getMove(Board board, Random rand) {
+        if (board.getNumMoves() >= _plies) {
+            return Move.NONE;
+        }
+        int symmetry = canonicalSymmetry(board);
+        long hash = hash(board, symmetry);
+        int first = find(hash);
+        int total = 0;
+        for (int k = first; k < _size && hashAt(k) == hash; k++) {
+            total += weightAt(k);
+        }
+        if (total <= 0) {
+            return Move.NONE;
+        }
+        int pick = rand.nextInt(total);
+        int k = first;
+        while (pick >= weightAt(k)) {
+            pick -= weightAt(k);
+            k += 1;
+        }
+        int move = transformMove(INVERSE[symmetry], moveAt(k));
+        if (move == Move.NONE || !board.isLegal(move)
+            || (board.getPieces(board.playerOnNum())
+                & (1 << Move.getPiece(move))) == 0) {
+            return Move.NONE;
+        }
+        return move;
+    }
+
+    /** Return the number of plies from the start I cover. */
+    int getPlies() {
+        return _plies;
+    }
+
+    /** Return the number of my entries. */
+    int size() {
+        return _size;
+    }
+
+    /** Return the index of my first entry whose hash is not less than
+     *  HASH, or my size if there is none. */
+    private int find(long hash) {
+        int lo = 0, hi = _size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (hashAt(mid) < hash) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** Return the hash of entry K. */
+    private long hashAt(int k) {
+        return _entries.getLong(HEADER_BYTES + k * ENTRY_BYTES);
+    }
+
+    /** Return the move of entry K. */
+    private int moveAt(int k) {
+        return _entries.getInt(HEADER_BYTES + k * ENTRY_BYTES + 8);
+    }
+
+    /** Return the weight of entry K. */
+    private int weightAt(int k) {
+        return _entries.getInt(HEADER_BYTES + k * ENTRY_BYTES + 12);
+    }
+
+    /** Return the symmetry that gives the canonical hash of BOARD: the
+     *  one whose image of BOARD has the smallest hash. */
+    static int canonicalSymmetry(Board board) {
+        int best = 0;
+        long bestHash = hash(board, 0);
+        for (int s = 1; s < SYMMETRIES; s++) {
+            long h = hash(board, s);
+            if (h < bestHash) {
+                best = s;
+                bestHash = h;
+            }
+        }
+        return best;
+    }
+
+    /** Return the Zobrist hash of the image of BOARD under symmetry
+     *  SYMMETRY. */
+    static long hash(Board board, int symmetry) {
+        long hash = board.getHash();
+        for (int p = 0; p < 2; p++) {
+            for (int r = 0; r < Board.SIZE; r++) {
+                for (int bits = board.getOccupied(p, r); bits != 0;
+                     bits &= bits - 1) {
+                    int c = Integer.numberOfTrailingZeros(bits);
+                    hash ^= Zobrist.square(p, c, r)
+                        ^ Zobrist.square(p, transformCol(symmetry, c, r),
+                                         transformRow(symmetry, c, r));
+                }
+            }
+        }
+        return hash;
+    }
+
+    /** Return the image of MOVE, in the packed form of Move, under
+     *  symmetry SYMMETRY, or Move.NONE if MOVE is Move.NONE. */
+    static int transformMove(int symmetry, int move) {
+        if (move == Move.NONE) {
+            return Move.NONE;
+        }
+        Orientation piece = Move.getOrientation(move);
+        int[] cellCols = piece.getCellCols();
+        int[] cellRows = piece.getCellRows();
+        int n = cellCols.length;
+        int[] cols = new int[n], rows = new int[n];
+        int minCol = Board.SIZE, minRow = Board.SIZE;
+        for (int k = 0; k < n; k++) {
+            int c = Move.getCol(move) + cellCols[k];
+            int r = Move.getRow(move) + cellRows[k];
+            cols[k] = transformCol(symmetry, c, r);
+            rows[k] = transformRow(symmetry, c, r);
+            minCol = Math.min(minCol, cols[k]);
+            minRow = Math.min(minRow, rows[k]);
+        }
+        for (Orientation image : Pieces.getOrientations(piece.getPiece())) {
+            int[] shape = new int[image.getHeight()];
+            boolean fits = true;
+            for (int k = 0; k < n && fits; k++) {
+                int r = rows[k] - minRow;
+                fits = r < shape.length;
+                if (fits) {
+                    shape[r] |= 1 << (cols[k] - minCol);
+                }
+            }
+            if (fits && Arrays.equals(shape, image.getRows())) {
+                return Move.make(piece.getPiece(), minCol, minRow,
+                                 image.getOrientNum());
+            }
+        }
+        return Move.NONE;
+    }
+
+    /** Return the column of the image of the square in column COL and
+     *  row ROW under symmetry SYMMETRY.  Symmetry 4 and above swap
+     *  columns and rows first; then bit 0 flips columns and bit 1 flips
+     *  rows. */
+    static int transformCol(int symmetry, int col, int row) {
+        int c = (symmetry & 4) != 0 ? row : col;
+        return (symmetry & 1) != 0 ? LAST - c : c;
+    }
+
+    /** Return the row of the image of the square in column COL and row
+     *  ROW under symmetry SYMMETRY (see transformCol). */
+    static int transformRow(int symmetry, int col, int row) {
+        int r = (symmetry & 4) != 0 ? col : row;
+        return (symmetry & 2) != 0 ? LAST - r : r;
+    }
+
+    /** My entries, after the header. */
+    private final ByteBuffer _entries;
+    /** The number of plies from the start I cover. */
+    private final int _plies;
+    /** The number of my entries. */
+    private final int _size;
+
+}
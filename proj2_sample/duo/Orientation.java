@@ -0,0 +1,111 @@
+package duo;
+
+/** One distinct orientation of a piece, with the squares it covers
+ *  worked out once in each of the forms the board and the move
+ *  generators need.  Orientations are built by Pieces when it is
+ *  loaded and never change.
+ *  @author Zack Mayeda
+ */
+final class Orientation {
+
+    /** The orientation numbered ORIENTNUM of piece number PIECE, whose
+     *  shape is SHAPE, an array of array of 0's and 1's in which the
+     *  first row is the top of the piece. */
+    Orientation(int piece, int orientNum, int[][] shape) {
+        _piece = piece;
+        _orientNum = orientNum;
+        _shape = shape;
+        _height = shape.length;
+        _width = shape[0].length;
+        _rows = new int[_height];
+        int size = 0;
+        for (int[] row : shape) {
+            for (int square : row) {
+                size += square;
+            }
+        }
+        _cellCols = new int[size];
+        _cellRows = new int[size];
+        for (int h = _height - 1, r = 0, k = 0; h >= 0; h--, r++) {
+            for (int c = 0; c < _width; c++) {
+                if (shape[h][c] == 1) {
+                    _rows[r] |= 1 << c;
+                    _cellCols[k] = c;
+                    _cellRows[k] = r;
+                    k += 1;
+                }
+            }
+        }
+    }
+
+    /** Return the number of my piece. */
+    int getPiece() {
+        return _piece;
+    }
+
+    /** Return the smallest orientation number that gives my shape. */
+    int getOrientNum() {
+        return _orientNum;
+    }
+
+    /** Return the number of columns I span. */
+    int getWidth() {
+        return _width;
+    }
+
+    /** Return the number of rows I span. */
+    int getHeight() {
+        return _height;
+    }
+
+    /** Return the number of squares I cover. */
+    int size() {
+        return _cellCols.length;
+    }
+
+    /** Return my rows as bit masks, from the bottom row up.  Bit C of a
+     *  mask is set iff I cover column C of that row.  The array is
+     *  shared and must not be modified. */
+    int[] getRows() {
+        return _rows;
+    }
+
+    /** Return the column offsets of the squares I cover, from my lower
+     *  left corner, in the same order as getCellRows.  The array is
+     *  shared and must not be modified. */
+    int[] getCellCols() {
+        return _cellCols;
+    }
+
+    /** Return the row offsets of the squares I cover, from my lower
+     *  left corner, in the same order as getCellCols.  The array is
+     *  shared and must not be modified. */
+    int[] getCellRows() {
+        return _cellRows;
+    }
+
+    /** Return my shape as an array of array of 0's and 1's in which the
+     *  first row is my top.  The array is shared and must not be
+     *  modified. */
+    int[][] getShape() {
+        return _shape;
+    }
+
+    /** The number of my piece. */
+    private final int _piece;
+    /** The smallest orientation number giving my shape. */
+    private final int _orientNum;
+    /** My shape in array of array of 0's and 1's form. */
+    private final int[][] _shape;
+    /** The number of columns I span. */
+    private final int _width;
+    /** The number of rows I span. */
+    private final int _height;
+    /** My rows as bit masks, bottom row first. */
+    private final int[] _rows;
+    /** Column offsets of my squares. */
+    private final int[] _cellCols;
+    /** Row offsets of my squares. */
+    private final int[] _cellRows;
+
+}
@@ -1,9 +1,9 @@
 package duo;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 
-import static duo.Color.*;
-
 /** A list of the pieces used in the game.
  *  @author Zack Mayeda
  */
@@ -56,7 +56,7 @@ public class Pieces {
      * int[][] of 0's and 1's as the values. 0's represent
      * empty spaces and 1's represent colored spaces.
      */
-    private static HashMap<String, int[][]> pieceTable =
+    private static final HashMap<String, int[][]> pieceTable =
             new HashMap<String, int[][]>();
 
     /** Fill the pieceTable with the pieces. */
@@ -98,4 +98,264 @@ public class Pieces {
         }
     }
 
+    /** The names of the pieces, indexed by piece number.  Pieces are
+     *  numbered in order of increasing size. */
+    private static final String[] NAMES = {
+        "one", "two", "v", "three", "s", "t", "d", "i", "z", "P", "F",
+        "Y", "N", "V", "X", "T", "U", "L", "I", "Z", "W"
+    };
+
+    /** The number of different pieces each player has. */
+    public static final int NUM_PIECES = NAMES.length;
+
+    /** The set of all piece numbers, in which bit P is set for every
+     *  piece P. */
+    public static final int ALL_PIECES = (1 << NUM_PIECES) - 1;
+
+    /** The number of orientation numbers a move may give. */
+    public static final int NUM_ORIENTS = 8;
+
+    /** The distinct orientations of each piece, indexed by piece
+     *  number, in increasing order of orientation number. */
+    private static final Orientation[][] DISTINCT =
+        new Orientation[NUM_PIECES][];
+
+    /** The orientation of each piece for every orientation number,
+     *  indexed by piece number and then orientation number.  Equivalent
+     *  orientation numbers share one Orientation. */
+    private static final Orientation[][] BY_NUMBER =
+        new Orientation[NUM_PIECES][NUM_ORIENTS];
+
+    /** Fill DISTINCT and BY_NUMBER, giving each shape the smallest
+     *  orientation number that produces it. */
+    static {
+        for (int p = 0; p < NUM_PIECES; p++) {
+            int[][] piece = pieceTable.get(NAMES[p]);
+            ArrayList<Orientation> distinct = new ArrayList<Orientation>();
+            for (int n = 0; n < NUM_ORIENTS; n++) {
+                int[][] shape = orientHelper(piece, n);
+                Orientation same = null;
+                for (Orientation o : distinct) {
+                    if (Arrays.deepEquals(o.getShape(), shape)) {
+                        same = o;
+                        break;
+                    }
+                }
+                if (same == null) {
+                    same = new Orientation(p, n, shape);
+                    distinct.add(same);
+                }
+                BY_NUMBER[p][n] = same;
+            }
+            DISTINCT[p] = distinct.toArray(new Orientation[distinct.size()]);
+        }
+    }
+
+    /** Return the number of squares in piece number PIECE. */
+    static int getSize(int piece) {
+        return DISTINCT[piece][0].size();
+    }
+
+    /** Return the total number of squares in the pieces in PIECES, a set
+     *  of piece numbers in which bit P is set iff piece P is included. */
+    static int countSquares(int pieces) {
+        int total = 0;
+        for (int p = pieces; p != 0; p &= p - 1) {
+            total += getSize(Integer.numberOfTrailingZeros(p));
+        }
+        return total;
+    }
+
+    /** Return the name of piece number NUM, as used by getPiece. */
+    public static String getPieceName(int num) {
+        return NAMES[num];
+    }
+
+    /** Return the number of the piece called NAME, or -1 if there is
+     *  no such piece. */
+    public static int getPieceNum(String name) {
+        for (int p = 0; p < NUM_PIECES; p++) {
+            if (NAMES[p].equals(name)) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    /** Return the distinct orientations of piece number PIECE, in
+     *  increasing order of orientation number.  The array is shared and
+     *  must not be modified. */
+    static Orientation[] getOrientations(int piece) {
+        return DISTINCT[piece];
+    }
+
+    /** Return piece number PIECE turned to orientation number
+     *  ORIENTNUM. */
+    static Orientation getOrientation(int piece, int orientNum) {
+        return BY_NUMBER[piece][orientNum];
+    }
+
+    /** This does the actual rotation of pieces, with no checking of
+     *  smallest orientation number.
+     * @param pieceArray The piece in its initial orientation.
+     * @param orientNum The number of the orientation desired.
+     * @return the rotated piece in the form of an array of array of
+     *  0's and 1's.
+     */
+    private static int[][] orientHelper(int[][] pieceArray, int orientNum) {
+        int[][] orientedPiece = orient0(pieceArray);
+        switch(orientNum) {
+        case 0:
+            orientedPiece = orient0(pieceArray);
+            break;
+        case 1:
+            orientedPiece = orient1(pieceArray);
+            break;
+        case 2:
+            orientedPiece =  orient2(pieceArray);
+            break;
+        case 3:
+            orientedPiece =  orient3(pieceArray);
+            break;
+        case 4:
+            orientedPiece =  orient4(pieceArray);
+            break;
+        case 5:
+            orientedPiece =  orient5(pieceArray);
+            break;
+        case 6:
+            orientedPiece =  orient6(pieceArray);
+            break;
+        case 7:
+            orientedPiece = orient7(pieceArray);
+            break;
+        default:
+            break;
+        }
+        return orientedPiece;
+    }
+
+    /** Change the orientation of the piece to 0.
+     * @param piece A piece in array of array of int form. In this form,
+     * 0's represent empty, and 1's represent a colored space.
+     * @return The same piece in array of array of ints form,
+     * not rotated because this is orientation 0.
+     */
+    private static int[][] orient0(int[][] piece) {
+        return piece;
+    }
+
+    /** Change the orientation of the piece to 1.
+     * @param piece A piece in array of array of int form.
+     * @return The piece in array of array of int form,
+     * rotated to orientation 1.
+     */
+    private static int[][] orient1(int[][] piece) {
+        return rotateRight(piece);
+    }
+
+    /** Change the orientation of the piece to 2.
+     * @param piece A piece in array of array of int form.
+     * @return The piece in array of array of int form,
+     * rotated to orientation 2.
+     */
+    private static int[][] orient2(int[][] piece) {
+        return horizFlip(vertFlip(piece));
+    }
+
+    /** Change the orientation of the piece to 3.
+      * @param piece A piece in array of array of int form.
+      * @return The piece in array of array of int form,
+      * rotated to orientation 3.
+      */
+    private static int[][] orient3(int[][] piece) {
+        return vertFlip(horizFlip(rotateRight(piece)));
+    }
+
+    /** Change the orientation of the piece to 4.
+      * @param piece A piece in array of array of int form.
+      * @return The piece in array of array of int form,
+      * rotated to orientation 4.
+      */
+    private static int[][] orient4(int[][] piece) {
+        return horizFlip(piece);
+    }
+
+    /** Change the orientation of the piece to 5.
+      * @param piece A piece in array of array of int form.
+      * @return The piece in array of array of int form,
+      * rotated to orientation 5.
+      */
+    private static int[][] orient5(int[][] piece) {
+        return horizFlip(rotateRight(piece));
+    }
+
+    /** Change the orientation of the piece to 6.
+      * @param piece A piece in array of array of int form.
+      * @return The piece in array of array of int form,
+      * rotated to orientation 6.
+      */
+    private static int[][] orient6(int[][] piece) {
+        return vertFlip(piece);
+    }
+
+    /** Change the orientation of the piece to 7.
+      * @param piece A piece in array of array of int form.
+      * @return The piece in array of array of int form,
+      * rotated to orientation 7.
+      */
+    private static int[][] orient7(int[][] piece) {
+        return vertFlip(rotateRight(piece));
+    }
+
+    /** Flip a piece horizontally.
+      * @param piece A piece in array of array of int form.
+      * @return The piece in array of array of int form,
+      * flipped horizontally.
+      */
+    private static int[][] horizFlip(int[][] piece) {
+        int height = piece.length;
+        int width = piece[0].length;
+        int[][] newPiece = new int[height][width];
+        for (int row = 0; row < height; row++) {
+            int[] newRow = new int[width];
+            for (int col = 0; col < width; col++) {
+                newRow[col] = piece[row][width - col - 1];
+            }
+            newPiece[row] = newRow;
+        }
+        return newPiece;
+    }
+
+    /** Flip a shape vertically.
+     * @param piece A piece in array of array of int form.
+     * @return The piece in array of array of int form,
+     *  vertically flipped. */
+    private static int[][] vertFlip(int[][] piece) {
+        int height = piece.length;
+        int width = piece[0].length;
+        int[][] newPiece = new int[height][width];
+        for (int row = 0; row < height; row++) {
+            newPiece[row] = piece[height - row - 1];
+        }
+        return newPiece;
+    }
+
+    /** Rotate a piece clockwise by 90 degrees.
+     * @param piece A piece in array of array of int form.
+     * @return The piece in array of array of int form, rotated
+     *  clockwise 90 degrees.
+     */
+    private static int[][] rotateRight(int[][] piece) {
+        int height = piece.length;
+        int width = piece[0].length;
+        int[][] rotPiece = new int[width][height];
+        for (int h = height - 1, count = 0; h >= 0; h--, count++) {
+            for (int w = 0; w < width; w++) {
+                rotPiece[w][count] = piece[h][w];
+            }
+        }
+        return rotPiece;
+    }
+
 }
@@ -37,6 +37,17 @@ abstract class Player {
     /** Make the next move in the game I am currently playing. */
     abstract void move();
 
+    /** Use BOOK for my opening moves. */
+    void setBook(OpeningBook book) {
+        _book = book;
+    }
+
+    /** Return a move from my opening book for my current game, or
+     *  Move.NONE if the book has none for its position. */
+    int bookMove() {
+        return _book.getMove(_game.getBoard(), _game.getRand());
+    }
+
     /** My name. */
     private final String _name;
     /** The piece color I am playing. */
@@ -45,5 +56,7 @@ abstract class Player {
     protected Game _game;
     /** The UI I use for input and messages. */
     protected UI _ui;
+    /** My opening book, empty unless one is given. */
+    private OpeningBook _book = new OpeningBook();
 
 }
@@ -0,0 +1,407 @@
+package duo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/** A stripped-down engine that finishes games from a given position
+ *  with random legal moves, for Monte Carlo search and for estimating
+ *  the value of positions by simulation.  It copies the bit masks of a
+ *  Board into arrays of its own and plays on them directly: pieces are
+ *  only ever added, so each move just ORs the piece into the masks of
+ *  the rows it covers and borders, with none of the checking, undo
+ *  records, hashing or reporting of a Game or MutableBoard.  The arrays
+ *  and the list of candidate moves are made once, so once the list has
+ *  grown to size, a playout allocates nothing.
+ *  Moves are chosen by a policy.  UNIFORM lists all legal moves and
+ *  picks one uniformly.  LARGEST_FIRST places a piece of the largest
+ *  size that fits anywhere, which is closer to how the game is played:
+ *  it picks a random corner square of the player at which such a piece
+ *  fits, and a random placement of one there.  It tries the ways of
+ *  covering each corner in random order and stops at the first that
+ *  fits, and remembers the corners where a size did not fit, so it
+ *  seldom looks at more than a few placements per move.
+ *  @author Zack Mayeda
+ */
+class Playout {
+
+    /** The policy that picks uniformly among all legal moves. */
+    static final int UNIFORM = 0;
+
+    /** The policy that places a piece of the largest size that fits,
+     *  at a random corner square where it does. */
+    static final int LARGEST_FIRST = 1;
+
+    /** The number of squares in the largest piece. */
+    private static final int MAX_PIECE_SIZE =
+        Pieces.getOrientations(Pieces.NUM_PIECES - 1)[0].size();
+
+    /** The anchors, each a way of covering a given square with a piece:
+     *  one for each cell of each orientation of each piece.  The anchors
+     *  of piece number P are numbered from FIRST_ANCHOR[P] up to
+     *  FIRST_ANCHOR[P + 1] - 1, and anchor A puts the cell in column
+     *  ANCHOR_COL[A] and row ANCHOR_ROW[A] of ANCHOR_SHAPE[A], which is
+     *  orientation number ANCHOR_ORIENT[A] of piece ANCHOR_PIECE[A], on
+     *  the square.  They are
+     *  kept in flat arrays so that trying one takes no lookups through
+     *  Pieces and Orientation. */
+    private static final int[] FIRST_ANCHOR = new int[Pieces.NUM_PIECES + 1];
+
+    /** See FIRST_ANCHOR. */
+    private static final int[] ANCHOR_PIECE, ANCHOR_ORIENT;
+
+    /** See FIRST_ANCHOR. */
+    private static final int[] ANCHOR_COL, ANCHOR_ROW;
+
+    /** The width of the orientation of each anchor. */
+    private static final int[] ANCHOR_WIDTH;
+
+    /** The rows of the orientation of each anchor, as by
+     *  Orientation.getRows. */
+    private static final int[][] ANCHOR_SHAPE;
+
+    static {
+        int total = 0;
+        for (int p = 0; p < Pieces.NUM_PIECES; p++) {
+            FIRST_ANCHOR[p] = total;
+            for (Orientation o : Pieces.getOrientations(p)) {
+                total += o.size();
+            }
+        }
+        FIRST_ANCHOR[Pieces.NUM_PIECES] = total;
+        ANCHOR_PIECE = new int[total];
+        ANCHOR_COL = new int[total];
+        ANCHOR_ROW = new int[total];
+        ANCHOR_ORIENT = new int[total];
+        ANCHOR_WIDTH = new int[total];
+        ANCHOR_SHAPE = new int[total][];
+        int a = 0;
+        for (int p = 0; p < Pieces.NUM_PIECES; p++) {
+            for (Orientation o : Pieces.getOrientations(p)) {
+                for (int k = 0; k < o.size(); k++) {
+                    ANCHOR_PIECE[a] = p;
+                    ANCHOR_COL[a] = o.getCellCols()[k];
+                    ANCHOR_ROW[a] = o.getCellRows()[k];
+                    ANCHOR_ORIENT[a] = o.getOrientNum();
+                    ANCHOR_WIDTH[a] = o.getWidth();
+                    ANCHOR_SHAPE[a] = o.getRows();
+                    a += 1;
+                }
+            }
+        }
+    }
+
+    /** An engine that chooses moves by POLICY, using RAND. */
+    Playout(Random rand, int policy) {
+        _rand = rand;
+        _policy = policy;
+    }
+
+    /** Make BOARD the position from which the next playout starts. */
+    void setPosition(Board board) {
+        for (int p = 0; p < 2; p++) {
+            for (int r = 0; r < Board.SIZE; r++) {
+                _occupied[p][r] = board.getOccupied(p, r);
+                _blocked[p][r] = board.getForbidden(p, r)
+                    | board.getOccupied(0, r) | board.getOccupied(1, r);
+                _corners[p][r] = board.getCorners(p, r);
+            }
+            _pieces[p] = board.getPieces(p);
+            _lastMove[p] = board.getLastMove(p);
+        }
+        _player = board.playerOnNum();
+        _movesMade = 0;
+        _state = _rand.nextLong() | 1;
+        for (int[][] dead : _dead) {
+            for (int[] rows : dead) {
+                Arrays.fill(rows, 0);
+            }
+        }
+    }
+
+    /** Play from my position until the player on move has no legal
+     *  move, and return orange's score minus violet's.  The next
+     *  playout starts from the position where this one ended, unless
+     *  setPosition is called again. */
+    int play() {
+        for (int move = chooseMove(); move != Move.NONE;
+             move = chooseMove()) {
+            makeMove(move);
+        }
+        return getScore(0) - getScore(1);
+    }
+
+    /** Return a legal move for the player on move in my position, chosen
+     *  by my policy, or Move.NONE if there is none. */
+    int chooseMove() {
+        if (_policy == UNIFORM) {
+            MoveList moves = _moves;
+            moves.clear();
+            addMoves(_pieces[_player], moves);
+            if (moves.isEmpty()) {
+                return Move.NONE;
+            }
+            return moves.get(nextInt(moves.size()));
+        }
+        int[] corners = _cornersLeft;
+        int pieces = _pieces[_player];
+        while (pieces != 0) {
+            int size = Pieces.getOrientations(Integer.SIZE - 1
+                - Integer.numberOfLeadingZeros(pieces))[0].size();
+            int sameSize = 0;
+            for (int p = pieces; p != 0; p &= p - 1) {
+                int piece = Integer.numberOfTrailingZeros(p);
+                if (Pieces.getOrientations(piece)[0].size() == size) {
+                    sameSize |= 1 << piece;
+                }
+            }
+            pieces &= ~sameSize;
+            int candidates = 0;
+            for (int p = sameSize; p != 0; p &= p - 1) {
+                int piece = Integer.numberOfTrailingZeros(p);
+                for (int a = FIRST_ANCHOR[piece]; a < FIRST_ANCHOR[piece + 1];
+                     a++) {
+                    _candidates[candidates] = a;
+                    candidates += 1;
+                }
+            }
+            int count = 0;
+            int[] dead = _dead[_player][size];
+            for (int r = 0; r < Board.SIZE; r++) {
+                corners[r] = _corners[_player][r] & ~dead[r];
+                count += Integer.bitCount(corners[r]);
+            }
+            for (; count > 0; count--) {
+                int n = nextInt(count);
+                int row = 0;
+                while (n >= Integer.bitCount(corners[row])) {
+                    n -= Integer.bitCount(corners[row]);
+                    row += 1;
+                }
+                int bits = corners[row];
+                for (; n > 0; n--) {
+                    bits &= bits - 1;
+                }
+                int col = Integer.numberOfTrailingZeros(bits);
+                corners[row] &= ~(1 << col);
+                int move = randomMoveAt(candidates, col, row);
+                if (move != Move.NONE) {
+                    return move;
+                }
+                dead[row] |= 1 << col;
+            }
+        }
+        return Move.NONE;
+    }
+
+    /** Return a pseudo-random int from 0 to N - 1 (inclusive), N > 0,
+     *  from my xorshift generator. */
+    private int nextInt(int n) {
+        long x = _state;
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        _state = x;
+        return (int) (((x >>> 32) * n) >>> 32);
+    }
+
+    /** Return the number of moves made by playouts since the last
+     *  setPosition. */
+    int getMovesMade() {
+        return _movesMade;
+    }
+
+    /** Return the score of player PLAYER in my position, counted as by
+     *  Board.getScore. */
+    int getScore(int player) {
+        if (placedMonominoLast(0) && placedMonominoLast(1)) {
+            return Board.WIN;
+        }
+        int score = 0;
+        for (int mask : _occupied[player]) {
+            score += Integer.bitCount(mask);
+        }
+        if (placedMonominoLast(player)) {
+            score += Board.MONOMINO_BONUS;
+        }
+        return score;
+    }
+
+    /** Return true iff player PLAYER has placed all its pieces, the last
+     *  of them the monomino. */
+    private boolean placedMonominoLast(int player) {
+        return _pieces[player] == 0 && _lastMove[player] != Move.NONE
+            && Move.getPiece(_lastMove[player]) == 0;
+    }
+
+    /** Return a move chosen uniformly from the legal moves of the player
+     *  on move that cover its corner square at column COL and row ROW
+     *  with one of the anchors in _candidates[0 .. COUNT-1], or
+     *  Move.NONE if there is none.  The anchors are tried in random
+     *  order, by drawing each from those not yet tried, until one fits,
+     *  which takes few draws while most of them do. */
+    private int randomMoveAt(int count, int col, int row) {
+        int[] candidates = _candidates;
+        int[] blocked = _blocked[_player];
+        for (int n = count; n > 0; n--) {
+            int k = nextInt(n);
+            int a = candidates[k];
+            candidates[k] = candidates[n - 1];
+            candidates[n - 1] = a;
+            int[] rows = ANCHOR_SHAPE[a];
+            int c = col - ANCHOR_COL[a];
+            int r = row - ANCHOR_ROW[a];
+            if (c < 0 || r < 0 || c + ANCHOR_WIDTH[a] > Board.SIZE
+                || r + rows.length > Board.SIZE) {
+                continue;
+            }
+            int i = 0;
+            while (i < rows.length && ((rows[i] << c) & blocked[r + i]) == 0) {
+                i += 1;
+            }
+            if (i == rows.length) {
+                return Move.make(ANCHOR_PIECE[a], c, r, ANCHOR_ORIENT[a]);
+            }
+        }
+        return Move.NONE;
+    }
+
+    /** Add to MOVES every legal move of the player on move that uses one
+     *  of PIECES.  The columns at which an oriented piece may be placed
+     *  in a given row are found all at once: shifting each row of the
+     *  player's blocked and corner squares right by the column of each
+     *  cell of the piece in that row, and ORing the results, gives the
+     *  masks of the columns at which the piece would cover a blocked
+     *  square or a corner square. */
+    private void addMoves(int pieces, MoveList moves) {
+        int[] corners = _corners[_player];
+        int[] blocked = _blocked[_player];
+        int cornerRows = 0;
+        for (int r = 0; r < Board.SIZE; r++) {
+            if (corners[r] != 0) {
+                cornerRows |= 1 << r;
+            }
+        }
+        if (cornerRows == 0) {
+            return;
+        }
+        int lowest = Integer.numberOfTrailingZeros(cornerRows);
+        int highest =
+            Integer.SIZE - 1 - Integer.numberOfLeadingZeros(cornerRows);
+        for (int p = pieces; p != 0; p &= p - 1) {
+            int piece = Integer.numberOfTrailingZeros(p);
+            for (Orientation o : Pieces.getOrientations(piece)) {
+                int[] cellCols = o.getCellCols();
+                int[] cellRows = o.getCellRows();
+                int height = o.getHeight();
+                int heightMask = (1 << height) - 1;
+                int span = (1 << (Board.SIZE - o.getWidth() + 1)) - 1;
+                int last = Math.min(Board.SIZE - height, highest);
+                for (int r = Math.max(0, lowest - height + 1); r <= last;
+                     r++) {
+                    if (((cornerRows >>> r) & heightMask) == 0) {
+                        continue;
+                    }
+                    int touch = 0;
+                    int clash = 0;
+                    for (int k = 0; k < cellCols.length; k++) {
+                        int row = r + cellRows[k];
+                        touch |= corners[row] >>> cellCols[k];
+                        clash |= blocked[row] >>> cellCols[k];
+                    }
+                    for (int cols = touch & ~clash & span; cols != 0;
+                         cols &= cols - 1) {
+                        int c = Integer.numberOfTrailingZeros(cols);
+                        moves.add(Move.make(piece, c, r, o.getOrientNum()));
+                    }
+                }
+            }
+        }
+    }
+
+    /** Make MOVE, which must be legal, for the player on move: add its
+     *  piece to the player's squares, block the squares it covers to
+     *  both players and those sharing its sides to the player, add the
+     *  squares diagonal to it to the player's corners, and pass the
+     *  turn. */
+    void makeMove(int move) {
+        int player = _player;
+        int other = 1 - player;
+        int[] occupied = _occupied[player];
+        int[] blocked = _blocked[player];
+        int[] otherBlocked = _blocked[other];
+        int[] corners = _corners[player];
+        int[] otherCorners = _corners[other];
+        if (_pieces[player] == Pieces.ALL_PIECES) {
+            corners[0] = 0;
+            corners[Board.SIZE - 1] = 0;
+        }
+        int[] rows = Move.getOrientation(move).getRows();
+        int col = Move.getCol(move);
+        int row = Move.getRow(move);
+        int top = row + rows.length;
+        for (int i = 0, r = row; i < rows.length; i++, r++) {
+            int mask = rows[i] << col;
+            int sides = (mask | (mask << 1) | (mask >>> 1)) & Board.FULL_ROW;
+            int diagonal = ((mask << 1) | (mask >>> 1)) & Board.FULL_ROW;
+            occupied[r] |= mask;
+            blocked[r] |= sides;
+            otherBlocked[r] |= mask;
+            if (r > 0) {
+                blocked[r - 1] |= mask;
+                corners[r - 1] |= diagonal;
+            }
+            if (r < Board.SIZE - 1) {
+                blocked[r + 1] |= mask;
+                corners[r + 1] |= diagonal;
+            }
+        }
+        for (int r = Math.max(0, row - 1); r <= Math.min(Board.SIZE - 1, top);
+             r++) {
+            corners[r] &= ~blocked[r];
+            otherCorners[r] &= ~otherBlocked[r];
+        }
+        _pieces[player] &= ~(1 << Move.getPiece(move));
+        _lastMove[player] = move;
+        _player = other;
+        _movesMade += 1;
+    }
+
+    /** My random numbers. */
+    private final Random _rand;
+    /** The state of my xorshift generator, which is never 0. */
+    private long _state = 1;
+    /** The policy by which I choose moves. */
+    private final int _policy;
+    /** Squares held by each player, by row, as in Board. */
+    private final int[][] _occupied = new int[2][Board.SIZE];
+    /** Squares on which each player may not place a piece: those held
+     *  by either player or sharing a side with the player's own. */
+    private final int[][] _blocked = new int[2][Board.SIZE];
+    /** The corner squares of each player, as in Board. */
+    private final int[][] _corners = new int[2][Board.SIZE];
+    /** The pieces each player has left, as in Board. */
+    private final int[] _pieces = new int[2];
+    /** The last move made by each player, or Move.NONE. */
+    private final int[] _lastMove = new int[2];
+    /** The number of the player on move. */
+    private int _player;
+    /** The number of moves made since the last setPosition. */
+    private int _movesMade;
+    /** The corner squares of the player on move not yet tried by
+     *  chooseMove. */
+    private final int[] _cornersLeft = new int[Board.SIZE];
+    /** The corner squares at which no piece of each size can be placed
+     *  by each player: bit C of _dead[P][S][R] is set once chooseMove has
+     *  found that none of player P's pieces of size S fits on the square
+     *  at column C and row R.  Squares are only ever blocked, and pieces
+     *  only ever used, so such a square stays dead for the rest of the
+     *  playout and is not tried again. */
+    private final int[][][] _dead =
+        new int[2][MAX_PIECE_SIZE + 1][Board.SIZE];
+    /** The anchors of the pieces chooseMove is trying to place. */
+    private final int[] _candidates =
+        new int[FIRST_ANCHOR[Pieces.NUM_PIECES]];
+    /** The legal moves of the current ply, for UNIFORM. */
+    private final MoveList _moves = new MoveList();
+
+}
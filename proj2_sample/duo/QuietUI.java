@@ -0,0 +1,40 @@
+package duo;
+
+/** A user interface that shows nothing, for games played by automated
+ *  players with no one watching, as in a Tournament.  It has no input,
+ *  and any error it is asked to report is treated as a bug.
+ *  @author Zack Mayeda
+ */
+class QuietUI implements UI {
+
+    @Override
+    public String getMove(Color color, int numMoves, String prevMove) {
+        throw new IllegalStateException("no input for a quiet game");
+    }
+
+    @Override
+    public void reportWinner(int orangeScore, int violetScore) {
+    }
+
+    @Override
+    public void reportBoard(Board board) {
+    }
+
+    @Override
+    public void reportBoardStandard(Board board) {
+    }
+
+    @Override
+    public void reportMove(Color color, int numMoves, String move) {
+    }
+
+    @Override
+    public void reportError(String message) {
+        throw new IllegalStateException(message);
+    }
+
+    @Override
+    public void report(String message) {
+    }
+
+}
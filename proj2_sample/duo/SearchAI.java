@@ -0,0 +1,272 @@
+package duo;
+
+/** An automated player that chooses moves by negamax search with
+ *  alpha-beta pruning.  It deepens the search one ply at a time until a
+ *  fixed amount of wall-clock time per move runs out, and plays the best
+ *  move of the deepest search it finished.  Positions at the search
+ *  horizon are judged by an Evaluator; finished games by their scores.
+ *  Results are kept in a TranspositionTable, so positions reached by
+ *  different move orders, or again in later searches, are not searched
+ *  twice, and the best move found before is tried first.
+ *  Once few enough moves are left, an EndgameSolver first tries to
+ *  search the rest of the game exactly in half my time, and its proven
+ *  move is played if it finishes.
+ *  @author Zack Mayeda
+ */
+class SearchAI extends Player {
+
+    /** The value of a finished game won by the player on move, before
+     *  adding the margin of victory. */
+    static final int WIN_VALUE = 1000000;
+
+    /** A value larger than that of any position. */
+    static final int INFINITY = Integer.MAX_VALUE;
+
+    /** The deepest search attempted, in plies. */
+    static final int MAX_DEPTH = 2 * Pieces.NUM_PIECES;
+
+    /** The number of nodes searched between checks of the clock. */
+    private static final int CLOCK_INTERVAL = 1024;
+
+    /** The log base 2 of the number of entries in my transposition
+     *  table. */
+    static final int TABLE_BITS = 20;
+
+    /** The largest number of legal moves for both players together at
+     *  which the endgame solver is tried. */
+    static final int SOLVER_MOBILITY = 40;
+
+    /** The log base 2 of the number of entries in my endgame solver's
+     *  transposition table. */
+    static final int SOLVER_TABLE_BITS = 18;
+
+    /** The number of nanoseconds in a millisecond. */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /** A searching player named NAME that uses UI for messages, spends
+     *  about BUDGETMILLIS milliseconds on each move and judges positions
+     *  with EVALUATOR. */
+    SearchAI(String name, UI ui, long budgetMillis, Evaluator evaluator) {
+        super(name, ui);
+        _budget = budgetMillis * NANOS_PER_MILLI;
+        _evaluator = evaluator;
+        _table = new TranspositionTable(TABLE_BITS);
+        _solver = new EndgameSolver(SOLVER_TABLE_BITS);
+        for (int ply = 0; ply <= MAX_DEPTH; ply++) {
+            _moveLists[ply] = new MoveList();
+        }
+    }
+
+    @Override
+    void move() {
+        int book = bookMove();
+        _game.move(book != Move.NONE ? book : findMove(_game.getBoard()));
+    }
+
+    /** Return the best move found for the player on move in BOARD within
+     *  my time budget, or Move.NONE if that player has no legal move. */
+    int findMove(Board board) {
+        long start = System.nanoTime();
+        _deadline = start + _budget;
+        _aborted = false;
+        _table.newSearch();
+        _board = new MutableBoard(board);
+        MoveList rootMoves = _moveLists[0];
+        rootMoves.clear();
+        int player = board.playerOnNum();
+        board.legalMoves(player, board.getPieces(player), rootMoves);
+        if (rootMoves.isEmpty()) {
+            return Move.NONE;
+        }
+        if (solve(board, rootMoves.size(), start + _budget / 2)) {
+            _searchNanos += System.nanoTime() - start;
+            return _solver.getBestMove();
+        }
+        rootMoves.sortDescending();
+        int best = rootMoves.get(0);
+        for (int depth = 1; depth <= MAX_DEPTH && !_aborted; depth++) {
+            int alpha = -INFINITY;
+            int bestIndex = -1;
+            for (int k = 0; k < rootMoves.size(); k++) {
+                _board.makeMove(rootMoves.get(k));
+                int value = -negamax(depth - 1, 1, -INFINITY, -alpha);
+                _board.unmakeMove();
+                if (_aborted) {
+                    break;
+                }
+                if (value > alpha) {
+                    alpha = value;
+                    bestIndex = k;
+                }
+            }
+            if (bestIndex >= 0) {
+                best = rootMoves.get(bestIndex);
+                rootMoves.moveToFront(bestIndex);
+            }
+            if (!_aborted) {
+                _depthReached = depth;
+            }
+            if (Math.abs(alpha) >= WIN_VALUE - Board.SIZE * Board.SIZE
+                && !_aborted) {
+                break;
+            }
+        }
+        _searchNanos += System.nanoTime() - start;
+        return best;
+    }
+
+    /** Return true iff my endgame solver proved the best move in BOARD,
+     *  where the player on move has MOBILITY legal moves, by System.nanoTime
+     *  DEADLINE.  It is only tried when both players together have at most
+     *  SOLVER_MOBILITY legal moves. */
+    private boolean solve(Board board, int mobility, long deadline) {
+        int opponent = 1 - board.playerOnNum();
+        MoveList moves = _moveLists[1];
+        moves.clear();
+        board.legalMoves(opponent, board.getPieces(opponent), moves);
+        if (mobility + moves.size() > SOLVER_MOBILITY) {
+            return false;
+        }
+        long before = _solver.getNodes();
+        boolean solved = _solver.solve(board, deadline);
+        _nodes += _solver.getNodes() - before;
+        return solved;
+    }
+
+    /** Return the value of my board to the player on move, searched to
+     *  DEPTH more plies, where the board is PLY plies below the root.
+     *  The result is exact if it lies strictly between ALPHA and BETA,
+     *  and otherwise only bounded by the one it does not exceed.  The
+     *  board is left as it was found. */
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        MutableBoard board = _board;
+        _nodes += 1;
+        if (_nodes % CLOCK_INTERVAL == 0 && System.nanoTime() > _deadline) {
+            _aborted = true;
+        }
+        if (_aborted) {
+            return 0;
+        }
+        int player = board.playerOnNum();
+        int pieces = board.getPieces(player);
+        if (depth == 0) {
+            if (!board.hasLegalMove(player, pieces)) {
+                return finalValue(board, player);
+            }
+            return _evaluator.evaluate(board, player);
+        }
+        long hash = board.getHash();
+        long entry = _table.probe(hash);
+        int hashMove = Move.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.getMove(entry);
+            if (TranspositionTable.getDepth(entry) >= depth) {
+                int value = TranspositionTable.getValue(entry);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && value >= beta)
+                    || (bound == TranspositionTable.UPPER && value <= alpha)) {
+                    return value;
+                }
+            }
+        }
+        MoveList moves = _moveLists[ply];
+        moves.clear();
+        board.legalMoves(player, pieces, moves);
+        if (moves.isEmpty()) {
+            return finalValue(board, player);
+        }
+        moves.sortDescending();
+        if (hashMove != Move.NONE) {
+            for (int k = 0; k < moves.size(); k++) {
+                if (moves.get(k) == hashMove) {
+                    moves.moveToFront(k);
+                    break;
+                }
+            }
+        }
+        int originalAlpha = alpha;
+        int bestMove = Move.NONE;
+        for (int k = 0; k < moves.size(); k++) {
+            board.makeMove(moves.get(k));
+            int value = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (_aborted) {
+                return 0;
+            }
+            if (value > alpha) {
+                alpha = value;
+                bestMove = moves.get(k);
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        int bound;
+        if (alpha >= beta) {
+            bound = TranspositionTable.LOWER;
+        } else if (alpha > originalAlpha) {
+            bound = TranspositionTable.EXACT;
+        } else {
+            bound = TranspositionTable.UPPER;
+        }
+        _table.store(hash, alpha, bestMove, depth, bound);
+        return alpha;
+    }
+
+    /** Return the value to PLAYER of the finished game on BOARD. */
+    static int finalValue(Board board, int player) {
+        int margin = board.getScore(player) - board.getScore(1 - player);
+        if (margin > 0) {
+            return WIN_VALUE + margin;
+        } else if (margin < 0) {
+            return -WIN_VALUE + margin;
+        }
+        return 0;
+    }
+
+    /** Return the number of positions I have searched. */
+    long getNodes() {
+        return _nodes;
+    }
+
+    /** Return the total time I have spent searching, in nanoseconds. */
+    long getSearchNanos() {
+        return _searchNanos;
+    }
+
+    /** Return my transposition table. */
+    TranspositionTable getTable() {
+        return _table;
+    }
+
+    /** Return the depth of the last search I finished, in plies. */
+    int getDepthReached() {
+        return _depthReached;
+    }
+
+    /** The time I may spend on each move, in nanoseconds. */
+    private final long _budget;
+    /** Judges positions at the search horizon. */
+    private final Evaluator _evaluator;
+    /** The board on which the current search makes and takes back
+     *  moves. */
+    private MutableBoard _board;
+    /** Results of earlier searches, by position. */
+    private final TranspositionTable _table;
+    /** Searches the last moves of a game exactly. */
+    private final EndgameSolver _solver;
+    /** A list of moves for each ply of the search, reused between nodes. */
+    private final MoveList[] _moveLists = new MoveList[MAX_DEPTH + 1];
+    /** The System.nanoTime at which the current search must stop. */
+    private long _deadline;
+    /** True iff the current search has run out of time. */
+    private boolean _aborted;
+    /** The number of positions searched so far. */
+    private long _nodes;
+    /** The total time spent searching so far, in nanoseconds. */
+    private long _searchNanos;
+    /** The depth of the last search finished. */
+    private int _depthReached;
+
+}
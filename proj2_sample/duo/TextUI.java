@@ -41,17 +41,17 @@ class TextUI implements UI {
 
     @Override
     public void reportBoard(Board board) {
-        Color[][] gameBoard = board.getBoard();
-        for (int col = TTEEN; col >= 0; col--) {
+        for (int row = TTEEN; row >= 0; row--) {
             System.out.print("  ");
-            for (int row = 0; row <= TTEEN; row++) {
-                if (gameBoard[row][col] == EMPTY) {
+            for (int col = 0; col <= TTEEN; col++) {
+                Color square = board.get(col, row);
+                if (square == EMPTY) {
                     System.out.print("-");
                 }
-                if (gameBoard[row][col] == VIOLET) {
+                if (square == VIOLET) {
                     System.out.print("V");
                 }
-                if (gameBoard[row][col] == ORANGE) {
+                if (square == ORANGE) {
                     System.out.print("O");
                 }
             }
@@ -0,0 +1,233 @@
+package duo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static duo.Color.*;
+
+/** A series of games between two automated players, played in parallel
+ *  on all available processors.  Games come in pairs that share a seed,
+ *  the first player taking orange in the first game of each pair and
+ *  violet in the second.  The seeds are drawn from a Random seeded with
+ *  a base seed, just as a Game draws its random numbers, so the same
+ *  base seed always gives the same games.  (Players that stop searching
+ *  when a clock runs out may still move differently from run to run.)
+ *  @author Zack Mayeda
+ */
+class Tournament {
+
+    /** The percentiles of move times reported. */
+    private static final double[] PERCENTILES = { 0.50, 0.90, 0.99, 1.0 };
+
+    /** The number of nanoseconds in a microsecond. */
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    /** A tournament of NUMGAMES games between the players named NAME0
+     *  and NAME1, whose seeds are derived from BASESEED. */
+    Tournament(String name0, String name1, int numGames, long baseSeed) {
+        _names = new String[] { name0, name1 };
+        _seeds = new long[numGames];
+        Random rand = new Random(baseSeed);
+        for (int g = 0; g < numGames; g += 2) {
+            long seed;
+            do {
+                seed = rand.nextLong();
+            } while (seed == 0);
+            _seeds[g] = seed;
+            if (g + 1 < numGames) {
+                _seeds[g + 1] = seed;
+            }
+        }
+    }
+
+    /** Return the color the first player has in game number G. */
+    static Color firstColor(int g) {
+        return g % 2 == 0 ? ORANGE : VIOLET;
+    }
+
+    /** Play all my games, using as many threads as there are available
+     *  processors, and report the totals on UI. */
+    void run(UI ui) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<Callable<GameResult>> tasks =
+            new ArrayList<Callable<GameResult>>();
+        for (int g = 0; g < _seeds.length; g++) {
+            final int game = g;
+            tasks.add(new Callable<GameResult>() {
+                @Override
+                public GameResult call() {
+                    return playGame(game);
+                }
+            });
+        }
+        long start = System.nanoTime();
+        try {
+            List<Future<GameResult>> results = pool.invokeAll(tasks);
+            for (Future<GameResult> result : results) {
+                _results.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Main.fatalError(ui, "tournament interrupted");
+        } catch (ExecutionException e) {
+            Main.fatalError(ui, "tournament game failed: " + e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        _elapsed = System.nanoTime() - start;
+        report(ui, threads);
+    }
+
+    /** Play game number G and return its result.  Games already run on
+     *  every processor, so Monte Carlo tree search players search on
+     *  one thread each rather than competing for them. */
+    private GameResult playGame(int g) {
+        UI ui = new QuietUI();
+        Player first = Main.makePlayer(_names[0], ui, 1);
+        Player second = Main.makePlayer(_names[1], ui, 1);
+        Game game;
+        if (firstColor(g) == ORANGE) {
+            game = new Game(first, second, ui, _seeds[g]);
+        } else {
+            game = new Game(second, first, ui, _seeds[g]);
+        }
+        GameResult result = game.play();
+        synchronized (_nodes) {
+            addSearchStats(first, 0);
+            addSearchStats(second, 1);
+        }
+        return result;
+    }
+
+    /** Add the nodes or playouts and time spent by PLAYER, if it
+     *  searches, to the totals for player number K of this tournament,
+     *  along with the hit rate and occupancy of a SearchAI's
+     *  transposition table. */
+    private void addSearchStats(Player player, int k) {
+        if (player instanceof SearchAI) {
+            SearchAI searcher = (SearchAI) player;
+            _nodes[k] += searcher.getNodes();
+            _searchNanos[k] += searcher.getSearchNanos();
+            _tables[k] += 1;
+            _hitRates[k] += searcher.getTable().getHitRate();
+            _occupancies[k] += searcher.getTable().getOccupancy();
+        } else if (player instanceof MctsAI) {
+            MctsAI searcher = (MctsAI) player;
+            _playouts[k] += searcher.getPlayouts();
+            _searchNanos[k] += searcher.getSearchNanos();
+        }
+    }
+
+    /** Report the totals of my games, played on THREADS threads, on UI. */
+    private void report(UI ui, int threads) {
+        int[] wins = new int[2];
+        int ties = 0;
+        long margin = 0;
+        List<List<Long>> times = new ArrayList<List<Long>>();
+        times.add(new ArrayList<Long>());
+        times.add(new ArrayList<Long>());
+        for (int g = 0; g < _results.size(); g++) {
+            GameResult result = _results.get(g);
+            Color color0 = firstColor(g);
+            Color color1 = color0 == ORANGE ? VIOLET : ORANGE;
+            Color winner = result.getWinner();
+            if (winner == color0) {
+                wins[0] += 1;
+            } else if (winner == color1) {
+                wins[1] += 1;
+            } else {
+                ties += 1;
+            }
+            margin += result.getScore(color0) - result.getScore(color1);
+            for (long t : result.getMoveNanos(color0)) {
+                times.get(0).add(t);
+            }
+            for (long t : result.getMoveNanos(color1)) {
+                times.get(1).add(t);
+            }
+        }
+        int n = _results.size();
+        ui.report(String.format("%d games on %d threads in %.1f s", n,
+                                threads, _elapsed / 1e9));
+        ui.report(String.format("%s wins %d, %s wins %d, ties %d", _names[0],
+                                wins[0], _names[1], wins[1], ties));
+        ui.report(String.format("Mean margin for %s: %.2f", _names[0],
+                                n == 0 ? 0.0 : (double) margin / n));
+        for (int k = 0; k < 2; k++) {
+            StringBuilder line = new StringBuilder();
+            line.append(_names[k]).append(" move times (us):");
+            long[] sorted = toSortedArray(times.get(k));
+            for (double p : PERCENTILES) {
+                line.append(String.format(" p%d=%.0f", (int) (p * 100),
+                                          percentile(sorted, p)
+                                          / NANOS_PER_MICRO));
+            }
+            if (_searchNanos[k] > 0 && _playouts[k] > 0) {
+                line.append(String.format(", %.0f playouts/s", _playouts[k]
+                                          / (_searchNanos[k] / 1e9)));
+            } else if (_searchNanos[k] > 0) {
+                line.append(String.format(", %.0f nodes/s", _nodes[k]
+                                          / (_searchNanos[k] / 1e9)));
+            }
+            if (_tables[k] > 0) {
+                line.append(String.format(", table hits %.1f%%, full %.1f%%",
+                                          100 * _hitRates[k] / _tables[k],
+                                          100 * _occupancies[k]
+                                          / _tables[k]));
+            }
+            ui.report(line.toString());
+        }
+    }
+
+    /** Return the values in TIMES as a sorted array. */
+    private static long[] toSortedArray(List<Long> times) {
+        long[] result = new long[times.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = times.get(i);
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /** Return the P'th quantile (0 < P <= 1) of SORTED by the nearest
+     *  rank, or 0 if SORTED is empty. */
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    /** The names of the two players. */
+    private final String[] _names;
+    /** The seed of each game. */
+    private final long[] _seeds;
+    /** The result of each game, in order, once played. */
+    private final List<GameResult> _results = new ArrayList<GameResult>();
+    /** The positions searched by each player over all games. */
+    private final long[] _nodes = new long[2];
+    /** The playouts made by each player over all games. */
+    private final long[] _playouts = new long[2];
+    /** The time spent searching by each player over all games, in
+     *  nanoseconds. */
+    private final long[] _searchNanos = new long[2];
+    /** The number of games in which each player used a transposition
+     *  table. */
+    private final int[] _tables = new int[2];
+    /** The sum over those games of each player's table hit rate. */
+    private final double[] _hitRates = new double[2];
+    /** The sum over those games of the fraction of each player's table
+     *  in use at the end of the game. */
+    private final double[] _occupancies = new double[2];
+    /** The time taken to play all games, in nanoseconds. */
+    private long _elapsed;
+
+}
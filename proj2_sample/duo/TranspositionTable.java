@@ -0,0 +1,167 @@
+package duo;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** A fixed-size table of search results keyed by Zobrist hash, shared
+ *  without locks.  Each entry is two longs: the hash exclusive-or'ed
+ *  with the data, and the data itself, so an entry torn by racing
+ *  writers fails its key check and reads as a miss instead of as wrong
+ *  data.  The data packs a value, a best move, the depth searched, the
+ *  kind of bound the value is and the search generation that stored it.
+ *
+ *  Entries live in buckets of two.  The first slot keeps the deepest
+ *  result of the current generation; the second always takes whatever
+ *  the first refuses.
+ *  @author Zack Mayeda
+ */
+class TranspositionTable {
+
+    /** Bound kind: the value is a lower bound (the search failed high). */
+    static final int LOWER = 1;
+    /** Bound kind: the value is an upper bound (the search failed low). */
+    static final int UPPER = 2;
+    /** Bound kind: the value is exact. */
+    static final int EXACT = 3;
+
+    /** The position of the move field in an entry. */
+    private static final int MOVE_SHIFT = 32;
+    /** The position of the depth field in an entry. */
+    private static final int DEPTH_SHIFT = 48;
+    /** The position of the bound field in an entry. */
+    private static final int BOUND_SHIFT = 56;
+    /** The position of the generation field in an entry. */
+    private static final int GENERATION_SHIFT = 58;
+    /** A mask of the low 32 bits. */
+    private static final long INT_MASK = 0xFFFFFFFFL;
+    /** A mask of the width of the move field. */
+    private static final int MOVE_MASK = 0xFFFF;
+    /** A mask of the width of the depth field. */
+    private static final int DEPTH_MASK = 0xFF;
+    /** A mask of the width of the bound field. */
+    private static final int BOUND_MASK = 0x3;
+    /** A mask of the width of the generation field. */
+    private static final int GENERATION_MASK = 0x3F;
+
+    /** An empty table of 2 to the power LOG2SIZE entries. */
+    TranspositionTable(int log2Size) {
+        int size = 1 << log2Size;
+        _keys = new long[size];
+        _data = new long[size];
+        _mask = size - 1;
+    }
+
+    /** Start a new search: entries stored from now on belong to a new
+     *  generation and may replace deeper entries of older ones. */
+    void newSearch() {
+        _generation = (_generation + 1) & GENERATION_MASK;
+    }
+
+    /** Return the entry stored for the position whose hash is HASH, or 0
+     *  if there is none.  Take its fields apart with getValue, getMove,
+     *  getDepth and getBound. */
+    long probe(long hash) {
+        _probes.increment();
+        int i = (int) hash & _mask & ~1;
+        for (int slot = i; slot <= i + 1; slot++) {
+            long data = _data[slot];
+            if ((_keys[slot] ^ data) == hash && data != 0) {
+                _hits.increment();
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /** Record that the position whose hash is HASH has value VALUE,
+     *  which is a bound of kind BOUND, and best move MOVE (or Move.NONE)
+     *  when searched to DEPTH plies. */
+    void store(long hash, int value, int move, int depth, int bound) {
+        long data = (value & INT_MASK)
+            | ((long) ((move + 1) & MOVE_MASK) << MOVE_SHIFT)
+            | ((long) Math.min(depth, DEPTH_MASK) << DEPTH_SHIFT)
+            | ((long) bound << BOUND_SHIFT)
+            | ((long) _generation << GENERATION_SHIFT);
+        int i = (int) hash & _mask & ~1;
+        long first = _data[i];
+        int slot = i + 1;
+        if (first == 0 || (_keys[i] ^ first) == hash
+            || getGeneration(first) != _generation
+            || getDepth(first) <= depth) {
+            slot = i;
+        }
+        if (_data[slot] == 0) {
+            _used.increment();
+        }
+        _keys[slot] = hash ^ data;
+        _data[slot] = data;
+    }
+
+    /** Return the value of ENTRY. */
+    static int getValue(long entry) {
+        return (int) entry;
+    }
+
+    /** Return the best move of ENTRY, in the packed form of Move, or
+     *  Move.NONE. */
+    static int getMove(long entry) {
+        return (int) ((entry >>> MOVE_SHIFT) & MOVE_MASK) - 1;
+    }
+
+    /** Return the depth to which the position of ENTRY was searched. */
+    static int getDepth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & DEPTH_MASK;
+    }
+
+    /** Return the kind of bound (LOWER, UPPER or EXACT) of the value of
+     *  ENTRY. */
+    static int getBound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & BOUND_MASK;
+    }
+
+    /** Return the generation of ENTRY. */
+    private static int getGeneration(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & GENERATION_MASK;
+    }
+
+    /** Return the number of entries I can hold. */
+    int size() {
+        return _data.length;
+    }
+
+    /** Return the number of probes made so far. */
+    long getProbes() {
+        return _probes.sum();
+    }
+
+    /** Return the number of probes so far that found an entry. */
+    long getHits() {
+        return _hits.sum();
+    }
+
+    /** Return the fraction of probes so far that found an entry. */
+    double getHitRate() {
+        long probes = getProbes();
+        return probes == 0 ? 0.0 : (double) getHits() / probes;
+    }
+
+    /** Return the fraction of my entries that are in use. */
+    double getOccupancy() {
+        return (double) _used.sum() / size();
+    }
+
+    /** The stored hashes, each exclusive-or'ed with its data. */
+    private final long[] _keys;
+    /** The stored data; 0 marks an empty entry. */
+    private final long[] _data;
+    /** The mask that reduces a hash to an entry index. */
+    private final int _mask;
+    /** The generation stamped on entries stored now. */
+    private volatile int _generation;
+    /** The number of probes made. */
+    private final LongAdder _probes = new LongAdder();
+    /** The number of probes that found an entry. */
+    private final LongAdder _hits = new LongAdder();
+    /** The number of entries in use. */
+    private final LongAdder _used = new LongAdder();
+
+}
@@ -0,0 +1,45 @@
+package duo;
+
+/** An Evaluator that weighs three differences between the players:
+ *  their scores, their numbers of legal moves (mobility) and their
+ *  numbers of corner squares still open to them.
+ *  @author Zack Mayeda
+ */
+class WeightedEvaluator implements Evaluator {
+
+    /** An evaluator that adds SCOREWEIGHT times the score difference,
+     *  MOBILITYWEIGHT times the mobility difference and CORNERWEIGHT
+     *  times the corner difference.  A weight of 0 skips its term, which
+     *  matters for mobility, the only costly one. */
+    WeightedEvaluator(int scoreWeight, int mobilityWeight, int cornerWeight) {
+        _scoreWeight = scoreWeight;
+        _mobilityWeight = mobilityWeight;
+        _cornerWeight = cornerWeight;
+    }
+
+    @Override
+    public int evaluate(Board board, int player) {
+        int opponent = 1 - player;
+        int value = _scoreWeight
+            * (board.getScore(player) - board.getScore(opponent));
+        if (_cornerWeight != 0) {
+            value += _cornerWeight
+                * (board.countCorners(player) - board.countCorners(opponent));
+        }
+        if (_mobilityWeight != 0) {
+            value += _mobilityWeight
+                * (board.legalMoves(player, board.getPieces(player), null)
+                   - board.legalMoves(opponent, board.getPieces(opponent),
+                                      null));
+        }
+        return value;
+    }
+
+    /** The weight of the score difference. */
+    private final int _scoreWeight;
+    /** The weight of the difference in numbers of legal moves. */
+    private final int _mobilityWeight;
+    /** The weight of the difference in numbers of corner squares. */
+    private final int _cornerWeight;
+
+}
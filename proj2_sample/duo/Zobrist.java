@@ -0,0 +1,116 @@
+package duo;
+
+import java.util.Random;
+
+/** The random keys from which Board builds its Zobrist hash.  A
+ *  position's hash is the exclusive or of the key of every occupied
+ *  square (one key per square per player), the key of every piece each
+ *  player still holds, the bonus key of each player who has placed all
+ *  its pieces with the monomino last and, when violet is on move, the
+ *  side key.  The bonus keys make the hash decide the final score as
+ *  well as the squares: a player who ends with the monomino scores
+ *  more than one who ends with another piece on the same squares.  The
+ *  keys come from a fixed seed so that hashes are the same from run to
+ *  run.
+ *  @author Zack Mayeda
+ */
+final class Zobrist {
+
+    /** The seed of the keys. */
+    private static final long SEED = 0x5DEECE66DL;
+
+    /** The number of squares on the board. */
+    private static final int SQUARES = Board.SIZE * Board.SIZE;
+
+    /** SQUARE_KEYS[P][R * SIZE + C] is the key of player P holding the
+     *  square in column C and row R. */
+    private static final long[][] SQUARE_KEYS = new long[2][SQUARES];
+
+    /** PIECE_KEYS[P][N] is the key of player P still holding piece
+     *  number N. */
+    private static final long[][] PIECE_KEYS =
+        new long[2][Pieces.NUM_PIECES];
+
+    /** BONUS_KEYS[P] is the key of player P having placed all its
+     *  pieces with the monomino last. */
+    private static final long[] BONUS_KEYS = new long[2];
+
+    /** The key of violet being on move. */
+    private static final long SIDE_KEY;
+
+    static {
+        Random keys = new Random(SEED);
+        for (int p = 0; p < 2; p++) {
+            for (int s = 0; s < SQUARES; s++) {
+                SQUARE_KEYS[p][s] = keys.nextLong();
+            }
+            for (int n = 0; n < Pieces.NUM_PIECES; n++) {
+                PIECE_KEYS[p][n] = keys.nextLong();
+            }
+        }
+        SIDE_KEY = keys.nextLong();
+        for (int p = 0; p < 2; p++) {
+            BONUS_KEYS[p] = keys.nextLong();
+        }
+    }
+
+    /** The hash of the empty board with orange on move. */
+    static final long INITIAL;
+
+    static {
+        long hash = 0;
+        for (int p = 0; p < 2; p++) {
+            for (int n = 0; n < Pieces.NUM_PIECES; n++) {
+                hash ^= PIECE_KEYS[p][n];
+            }
+        }
+        INITIAL = hash;
+    }
+
+    /** Keys are never instantiated. */
+    private Zobrist() {
+    }
+
+    /** Return the key of player PLAYER holding the square in column COL
+     *  and row ROW. */
+    static long square(int player, int col, int row) {
+        return SQUARE_KEYS[player][row * Board.SIZE + col];
+    }
+
+    /** Return the key of player PLAYER still holding piece number
+     *  PIECE. */
+    static long piece(int player, int piece) {
+        return PIECE_KEYS[player][piece];
+    }
+
+    /** Return the key of player PLAYER having placed all its pieces
+     *  with the monomino last. */
+    static long bonus(int player) {
+        return BONUS_KEYS[player];
+    }
+
+    /** Return the key of violet being on move. */
+    static long side() {
+        return SIDE_KEY;
+    }
+
+    /** Return the hash change of player PLAYER placing MOVE, in the
+     *  packed form of Move: the keys of the squares it covers, of the
+     *  piece it uses and of the change of side.  It leaves out the
+     *  bonus key, which depends on the pieces PLAYER has left as well. */
+    static long move(int player, int move) {
+        Orientation piece = Move.getOrientation(move);
+        int col = Move.getCol(move);
+        int row = Move.getRow(move);
+        int[] cellCols = piece.getCellCols();
+        int[] cellRows = piece.getCellRows();
+        long[] keys = SQUARE_KEYS[player];
+        long change = PIECE_KEYS[player][Move.getPiece(move)] ^ SIDE_KEY;
+        for (int k = 0; k < cellCols.length; k++) {
+            change ^= keys[(row + cellRows[k]) * Board.SIZE
+                           + col + cellCols[k]];
+        }
+        return change;
+    }
+
+}